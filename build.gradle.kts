@@ -3,6 +3,7 @@ plugins {
     id("org.springframework.boot") version "3.3.2"
     id("io.spring.dependency-management") version "1.1.4"
     id("jacoco")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.interview"
@@ -24,15 +25,20 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-security")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310:2.17.2")
+    implementation("org.apache.httpcomponents.client5:httpclient5")
+    implementation("com.github.ben-manes.caffeine:caffeine")
 
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.5.0")
     implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-xml")
+    implementation("com.fasterxml.jackson.module:jackson-module-blackbird")
 
     compileOnly("org.projectlombok:lombok")
     annotationProcessor("org.projectlombok:lombok")
 
-    runtimeOnly("org.postgresql:postgresql")
+    implementation("org.postgresql:postgresql")
     runtimeOnly("org.flywaydb:flyway-database-postgresql")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
@@ -41,6 +47,9 @@ dependencies {
     testImplementation("org.mockito:mockito-subclass")
     testImplementation("org.mockito:mockito-junit-jupiter")
     testImplementation("org.mockito:mockito-inline:5.2.0")
+    testImplementation("org.flywaydb:flyway-core")
+    testImplementation("io.zonky.test:embedded-postgres:2.0.7")
+    testImplementation("org.openjdk.jol:jol-core:0.17")
 }
 
 tasks.withType<Test> {
@@ -100,6 +109,14 @@ tasks.jacocoTestCoverageVerification {
     }
 }
 
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    benchmarkMode.set(listOf("thrpt"))
+    timeUnit.set("us")
+}
+
 tasks.bootJar {
     exclude("org/projectlombok/**")
 }
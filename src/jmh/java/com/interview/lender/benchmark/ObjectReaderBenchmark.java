@@ -0,0 +1,100 @@
+package com.interview.lender.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.interview.lender.dto.CustomerSoapResponse;
+import com.interview.lender.dto.ScoringResponse;
+import com.interview.lender.dto.TransactionDto;
+import com.interview.lender.services.ObjectReaderRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.interview.lender.util.Constants.MOCK_TRANSACTIONS_RESPONSE;
+
+// Parse throughput per DTO: the shared Blackbird-backed readers against a fresh mapper per call, as the services used to do
+@State(Scope.Benchmark)
+public class ObjectReaderBenchmark {
+
+    private static final String CUSTOMER_SOAP_RESPONSE = """
+            <SOAP-ENV:Envelope xmlns:SOAP-ENV="http://schemas.xmlsoap.org/soap/envelope/">
+                <SOAP-ENV:Header/>
+                <SOAP-ENV:Body>
+                    <ns2:CustomerResponse xmlns:ns2="http://credable.io/cbs/customer">
+                        <ns2:customer>
+                            <ns2:createdAt>2025-04-12T08:43:51.694Z</ns2:createdAt>
+                            <ns2:customerNumber>234774784</ns2:customerNumber>
+                            <ns2:dob>1970-06-25T00:00:00.000Z</ns2:dob>
+                            <ns2:firstName>John</ns2:firstName>
+                            <ns2:lastName>Doe</ns2:lastName>
+                            <ns2:monthlyIncome>7216.72</ns2:monthlyIncome>
+                            <ns2:status>ACTIVE</ns2:status>
+                        </ns2:customer>
+                    </ns2:CustomerResponse>
+                </SOAP-ENV:Body>
+            </SOAP-ENV:Envelope>
+            """;
+    private static final String SCORING_RESPONSE = """
+            {"id":1,"customerNumber":"234774784","score":564,"limitAmount":30000,"exclusion":"No Exclusion","exclusionReason":"No Exclusion"}
+            """;
+
+    private ObjectReaderRegistry objectReaderRegistry;
+
+
+
+    @Setup
+    public void setUp() {
+        objectReaderRegistry = new ObjectReaderRegistry(new ObjectMapper());
+        objectReaderRegistry.warmUp();
+    }
+
+
+
+    @Benchmark
+    public CustomerSoapResponse customerSoapResponse_registry() throws IOException {
+        return objectReaderRegistry.customerSoapResponse().readValue(CUSTOMER_SOAP_RESPONSE);
+    }
+
+
+
+    @Benchmark
+    public CustomerSoapResponse customerSoapResponse_newMapper() throws IOException {
+        XmlMapper xmlMapper = new XmlMapper();
+        xmlMapper.registerModule(new JavaTimeModule());
+        return xmlMapper.readValue(CUSTOMER_SOAP_RESPONSE, CustomerSoapResponse.class);
+    }
+
+
+
+    @Benchmark
+    public List<TransactionDto> transactionList_registry() throws IOException {
+        return objectReaderRegistry.transactionList().readValue(MOCK_TRANSACTIONS_RESPONSE);
+    }
+
+
+
+    @Benchmark
+    public List<TransactionDto> transactionList_newMapper() throws IOException {
+        return new ObjectMapper().readValue(MOCK_TRANSACTIONS_RESPONSE, new TypeReference<>() {});
+    }
+
+
+
+    @Benchmark
+    public ScoringResponse scoringResponse_registry() throws IOException {
+        return objectReaderRegistry.json(ScoringResponse.class).readValue(SCORING_RESPONSE);
+    }
+
+
+
+    @Benchmark
+    public ScoringResponse scoringResponse_newMapper() throws IOException {
+        return new ObjectMapper().readValue(SCORING_RESPONSE, ScoringResponse.class);
+    }
+}
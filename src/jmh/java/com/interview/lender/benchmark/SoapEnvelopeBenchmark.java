@@ -0,0 +1,52 @@
+package com.interview.lender.benchmark;
+
+import com.interview.lender.util.SoapEnvelopeTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.interview.lender.util.Constants.KYC_REQUEST_TEMPLATE;
+import static com.interview.lender.util.Constants.TRANSACTIONS_REQUEST_TEMPLATE;
+
+// Run with ./gradlew jmh; compare bytes/op with -prof gc
+@State(Scope.Benchmark)
+public class SoapEnvelopeBenchmark {
+
+    private static final String USERNAME = "admin";
+    private static final String PASSWORD = "pwd123";
+
+    @Param({"KYC", "TRANSACTIONS"})
+    private String envelope;
+
+    private String formatTemplate;
+    private SoapEnvelopeTemplate boundTemplate;
+    private String customerNumber;
+
+
+
+    @Setup
+    public void setUp() {
+        formatTemplate = "KYC".equals(envelope) ? KYC_REQUEST_TEMPLATE : TRANSACTIONS_REQUEST_TEMPLATE;
+        boundTemplate = SoapEnvelopeTemplate.compile(formatTemplate).bind(USERNAME, PASSWORD);
+        customerNumber = "234774784";
+    }
+
+
+
+    // What buildSoapRequest did before: format per call, then the message converter encodes the String
+    @Benchmark
+    public byte[] stringFormat() {
+        return String.format(formatTemplate, USERNAME, PASSWORD, customerNumber).getBytes(StandardCharsets.UTF_8);
+    }
+
+
+
+    @Benchmark
+    public byte[] templateRender() {
+        return boundTemplate.render(customerNumber);
+    }
+}
@@ -1,9 +1,13 @@
 package com.interview.lender.config;
 
+import com.interview.lender.enums.Downstream;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Map;
+import java.util.Set;
+
 @Data
 @Configuration
 public class AppConfig {
@@ -19,6 +23,35 @@ public class AppConfig {
     @Value("${cbs.password}")
     private String cbsPassword;
 
+    // CBS Cache Configuration
+    @Value("${cbs.kyc.cache.max.size}")
+    private long cbsKycCacheMaxSize;
+
+    @Value("${cbs.kyc.cache.ttl.seconds}")
+    private long cbsKycCacheTtlSeconds;
+
+    @Value("${cbs.kyc.cache.negative.ttl.seconds}")
+    private long cbsKycCacheNegativeTtlSeconds;
+
+    @Value("${cbs.transaction.cache.max.size}")
+    private long cbsTransactionCacheMaxSize;
+
+    @Value("${cbs.transaction.cache.soft.ttl.seconds}")
+    private long cbsTransactionCacheSoftTtlSeconds;
+
+    @Value("${cbs.transaction.cache.hard.ttl.seconds}")
+    private long cbsTransactionCacheHardTtlSeconds;
+
+    // Transaction Batch Configuration
+    @Value("${transaction.batch.max.size}")
+    private int transactionBatchMaxSize;
+
+    @Value("${transaction.batch.max.parallelism}")
+    private int transactionBatchMaxParallelism;
+
+    @Value("${transaction.batch.timeout.millis}")
+    private long transactionBatchTimeoutMillis;
+
     // Scoring Engine Configuration
     @Value("${scoring.base.url}")
     private String scoringBaseUrl;
@@ -32,12 +65,96 @@ public class AppConfig {
     @Value("${scoring.client.create.path}")
     private String scoringClientCreatePath;
 
+    @Value("${scoring.client.token.ttl.seconds}")
+    private long scoringClientTokenTtlSeconds;
+
+    @Value("${scoring.client.token.refresh.ahead.seconds}")
+    private long scoringClientTokenRefreshAheadSeconds;
+
     @Value("${scoring.retry.max.attempts}")
     private int scoringRetryMaxAttempts;
 
     @Value("${scoring.retry.delay.seconds}")
     private int scoringRetryDelaySeconds;
 
+    @Value("${scoring.retry.max.delay.seconds}")
+    private int scoringRetryMaxDelaySeconds;
+
+    @Value("${scoring.worker.pool.size}")
+    private int scoringWorkerPoolSize;
+
+    @Value("${scoring.node.id}")
+    private String scoringNodeId;
+
+    @Value("${scoring.lease.seconds}")
+    private int scoringLeaseSeconds;
+
+    @Value("${scoring.callback.enabled}")
+    private boolean scoringCallbackEnabled;
+
+    @Value("${scoring.reconciliation.delay.seconds}")
+    private int scoringReconciliationDelaySeconds;
+
+    // Scoring Scheduler Configuration
+    @Value("${scoring.scheduler.tick.millis}")
+    private long scoringSchedulerTickMillis;
+
+    @Value("${scoring.scheduler.drain.enabled}")
+    private boolean scoringDrainEnabled;
+
+    @Value("${scoring.scheduler.page.size.min}")
+    private int scoringPageSizeMin;
+
+    @Value("${scoring.scheduler.page.size.max}")
+    private int scoringPageSizeMax;
+
+    @Value("${scoring.scheduler.target.page.millis}")
+    private long scoringTargetPageMillis;
+
+    @Value("${scoring.scheduler.max.drain.millis}")
+    private long scoringMaxDrainMillis;
+
+    @Value("${scoring.listener.poll.millis}")
+    private int scoringListenerPollMillis;
+
+    @Value("${scoring.listener.reconnect.millis}")
+    private long scoringListenerReconnectMillis;
+
+    // Scoring Concurrency Limiter Configuration
+    @Value("${scoring.limiter.initial.limit}")
+    private int scoringLimiterInitialLimit;
+
+    @Value("${scoring.limiter.min.limit}")
+    private int scoringLimiterMinLimit;
+
+    @Value("${scoring.limiter.max.limit}")
+    private int scoringLimiterMaxLimit;
+
+    @Value("${scoring.limiter.backoff.ratio}")
+    private double scoringLimiterBackoffRatio;
+
+    @Value("${scoring.limiter.latency.threshold.millis}")
+    private long scoringLimiterLatencyThresholdMillis;
+
+    @Value("${scoring.limiter.max.wait.millis}")
+    private long scoringLimiterMaxWaitMillis;
+
+    // Scoring Outbox Configuration
+    @Value("${scoring.outbox.dispatch.millis}")
+    private long scoringOutboxDispatchMillis;
+
+    @Value("${scoring.outbox.batch.size}")
+    private int scoringOutboxBatchSize;
+
+    @Value("${scoring.outbox.max.attempts}")
+    private int scoringOutboxMaxAttempts;
+
+    @Value("${scoring.outbox.retry.delay.seconds}")
+    private int scoringOutboxRetryDelaySeconds;
+
+    @Value("${scoring.outbox.retry.max.delay.seconds}")
+    private int scoringOutboxRetryMaxDelaySeconds;
+
     // Transaction Data API Configuration
     @Value("${transaction.url}")
     private String transactionsUrl;
@@ -50,4 +167,98 @@ public class AppConfig {
 
     @Value("${transaction.api.password}")
     private String transactionApiPassword;
+
+    // HTTP Client Configuration
+    @Value("${http.client.connect.timeout.millis}")
+    private long httpClientConnectTimeoutMillis;
+
+    @Value("${http.client.read.timeout.millis}")
+    private long httpClientReadTimeoutMillis;
+
+    @Value("${http.client.pool.acquire.timeout.millis}")
+    private long httpClientPoolAcquireTimeoutMillis;
+
+    @Value("${http.client.pool.max.total}")
+    private int httpClientPoolMaxTotal;
+
+    @Value("${http.client.pool.max.per.route}")
+    private int httpClientPoolMaxPerRoute;
+
+    @Value("${http.client.pool.max.per.route.scoring}")
+    private int httpClientPoolMaxPerRouteScoring;
+
+    @Value("${http.client.pool.max.per.route.kyc}")
+    private int httpClientPoolMaxPerRouteKyc;
+
+    @Value("${http.client.pool.max.per.route.transactions}")
+    private int httpClientPoolMaxPerRouteTransactions;
+
+    @Value("${http.client.pool.idle.evict.seconds}")
+    private long httpClientPoolIdleEvictSeconds;
+
+    @Value("${http.client.pool.time.to.live.seconds}")
+    private long httpClientPoolTimeToLiveSeconds;
+
+    @Value("${http.client.pool.validate.after.inactivity.millis}")
+    private long httpClientPoolValidateAfterInactivityMillis;
+
+    // Request Deadline Configuration
+    @Value("${deadline.header}")
+    private String deadlineHeader;
+
+    @Value("${deadline.default.millis}")
+    private long deadlineDefaultMillis;
+
+    @Value("${deadline.max.millis}")
+    private long deadlineMaxMillis;
+
+    // Path prefix to budget, written as a SpEL map literal
+    @Value("#{${deadline.endpoints}}")
+    private Map<String, Long> deadlineEndpoints;
+
+    // Downstream Resilience Configuration
+    @Value("${resilience.circuit.failure.rate.threshold}")
+    private int resilienceCircuitFailureRateThreshold;
+
+    @Value("${resilience.circuit.sliding.window.size}")
+    private int resilienceCircuitSlidingWindowSize;
+
+    @Value("${resilience.circuit.minimum.calls}")
+    private int resilienceCircuitMinimumCalls;
+
+    @Value("${resilience.circuit.open.duration.millis}")
+    private long resilienceCircuitOpenDurationMillis;
+
+    @Value("${resilience.circuit.half.open.permitted.calls}")
+    private int resilienceCircuitHalfOpenPermittedCalls;
+
+    @Value("${resilience.bulkhead.max.wait.millis}")
+    private long resilienceBulkheadMaxWaitMillis;
+
+    @Value("${resilience.bulkhead.max.concurrent.kyc}")
+    private int resilienceBulkheadMaxConcurrentKyc;
+
+    @Value("${resilience.bulkhead.max.concurrent.transactions}")
+    private int resilienceBulkheadMaxConcurrentTransactions;
+
+    @Value("${resilience.bulkhead.max.concurrent.scoring}")
+    private int resilienceBulkheadMaxConcurrentScoring;
+
+    @Value("${resilience.retry.max.retries}")
+    private int resilienceRetryMaxRetries;
+
+    @Value("${resilience.retry.base.delay.millis}")
+    private long resilienceRetryBaseDelayMillis;
+
+    @Value("${resilience.retry.max.delay.millis}")
+    private long resilienceRetryMaxDelayMillis;
+
+    @Value("${resilience.retry.budget.percent}")
+    private int resilienceRetryBudgetPercent;
+
+    @Value("${resilience.retry.budget.max.tokens}")
+    private int resilienceRetryBudgetMaxTokens;
+
+    @Value("${resilience.retry.post.downstreams}")
+    private Set<Downstream> resilienceRetryPostDownstreams;
 }
@@ -0,0 +1,71 @@
+package com.interview.lender.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.interview.lender.dto.CachedTransactionHistory;
+import com.interview.lender.dto.CustomerDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Configuration
+@RequiredArgsConstructor
+public class CacheConfig {
+
+    private final AppConfig appConfig;
+
+
+
+    // W-TinyLFU bounded; a confirmed not-found is kept only briefly so a newly onboarded customer is seen soon
+    @Bean
+    public Cache<String, Optional<CustomerDto>> kycCustomerCache(MeterRegistry meterRegistry) {
+        Cache<String, Optional<CustomerDto>> cache = Caffeine.newBuilder()
+                .maximumSize(appConfig.getCbsKycCacheMaxSize())
+                .expireAfter(expireByPresence(Duration.ofSeconds(appConfig.getCbsKycCacheTtlSeconds()),
+                        Duration.ofSeconds(appConfig.getCbsKycCacheNegativeTtlSeconds())))
+                .recordStats()
+                .build();
+
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "kyc.customers");
+    }
+
+
+
+    @Bean
+    public Cache<String, CachedTransactionHistory> transactionHistoryCache(MeterRegistry meterRegistry) {
+        Cache<String, CachedTransactionHistory> cache = Caffeine.newBuilder()
+                .maximumSize(appConfig.getCbsTransactionCacheMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(appConfig.getCbsTransactionCacheHardTtlSeconds()))
+                .recordStats()
+                .build();
+
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "transaction.histories");
+    }
+
+
+
+    private static <K, V> Expiry<K, Optional<V>> expireByPresence(Duration ttl, Duration negativeTtl) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(K key, Optional<V> value, long currentTime) {
+                return (value.isPresent() ? ttl : negativeTtl).toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(K key, Optional<V> value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(K key, Optional<V> value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.interview.lender.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Boot registers Module beans on its ObjectMapper, so RestTemplate converters and the reader registry both get generated accessors
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
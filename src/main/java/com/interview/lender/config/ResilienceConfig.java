@@ -0,0 +1,63 @@
+package com.interview.lender.config;
+
+import com.interview.lender.dto.TransactionDto;
+import com.interview.lender.resilience.AdaptiveConcurrencyLimiter;
+import com.interview.lender.resilience.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class ResilienceConfig {
+
+    private final AppConfig appConfig;
+
+
+
+    @Bean
+    public AdaptiveConcurrencyLimiter scoringConcurrencyLimiter(MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("scoring",
+                appConfig.getScoringLimiterInitialLimit(),
+                appConfig.getScoringLimiterMinLimit(),
+                appConfig.getScoringLimiterMaxLimit(),
+                appConfig.getScoringLimiterBackoffRatio(),
+                appConfig.getScoringLimiterLatencyThresholdMillis());
+
+        Gauge.builder("lender.scoring.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on concurrent scoring engine calls")
+                .register(meterRegistry);
+        Gauge.builder("lender.scoring.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Scoring engine calls currently holding a limiter permit")
+                .register(meterRegistry);
+        return limiter;
+    }
+
+
+
+    @Bean
+    public SingleFlight<String, List<TransactionDto>> transactionHistoryFlights(MeterRegistry meterRegistry) {
+        SingleFlight<String, List<TransactionDto>> flights = new SingleFlight<>();
+
+        FunctionCounter.builder("lender.singleflight.calls", flights, SingleFlight::getExecuted)
+                .description("Calls that went to the downstream on behalf of one or more callers")
+                .tag("name", "transactions")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        FunctionCounter.builder("lender.singleflight.calls", flights, SingleFlight::getCoalesced)
+                .description("Callers served by joining a call already in flight for the same key")
+                .tag("name", "transactions")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("lender.singleflight.inflight", flights, SingleFlight::getInFlight)
+                .description("Keys with a shared call currently outstanding")
+                .tag("name", "transactions")
+                .register(meterRegistry);
+        return flights;
+    }
+}
@@ -1,21 +1,150 @@
 package com.interview.lender.config;
 
+import com.interview.lender.resilience.Deadline;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
 @Configuration
+@RequiredArgsConstructor
 public class RestConfig {
 
+    private final AppConfig appConfig;
+
+
+
+    @Bean
+    public PoolingHttpClientConnectionManager httpClientConnectionManager(MeterRegistry meterRegistry) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(appConfig.getHttpClientConnectTimeoutMillis()))
+                .setSocketTimeout(Timeout.ofMilliseconds(appConfig.getHttpClientReadTimeoutMillis()))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(appConfig.getHttpClientPoolValidateAfterInactivityMillis()))
+                .setTimeToLive(TimeValue.ofSeconds(appConfig.getHttpClientPoolTimeToLiveSeconds()))
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setDefaultConnectionConfig(connectionConfig)
+                .setMaxConnTotal(appConfig.getHttpClientPoolMaxTotal())
+                .setMaxConnPerRoute(appConfig.getHttpClientPoolMaxPerRoute())
+                .build();
+
+        configureRoute(connectionManager, meterRegistry, "scoring", appConfig.getScoringBaseUrl(), appConfig.getHttpClientPoolMaxPerRouteScoring());
+        configureRoute(connectionManager, meterRegistry, "kyc", appConfig.getCbsKycUrl(), appConfig.getHttpClientPoolMaxPerRouteKyc());
+        configureRoute(connectionManager, meterRegistry, "transactions", appConfig.getCbsTransactionUrl(), appConfig.getHttpClientPoolMaxPerRouteTransactions());
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "lender-http-client").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+
+
+    @Bean
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(appConfig.getHttpClientPoolAcquireTimeoutMillis()))
+                .setResponseTimeout(Timeout.ofMilliseconds(appConfig.getHttpClientReadTimeoutMillis()))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(appConfig.getHttpClientPoolIdleEvictSeconds()))
+                .build();
+    }
+
+
+
     @Bean
-    public RestTemplate restTemplate() {
+    public HttpClient asyncHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(appConfig.getHttpClientConnectTimeoutMillis()))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
         RestTemplate restTemplate = new RestTemplate();
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(30000);
-        factory.setReadTimeout(30000);
-        restTemplate.setRequestFactory(factory);
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> deadlineContext());
+        restTemplate.setRequestFactory(requestFactory);
 
         return restTemplate;
     }
+
+
+
+    // Runs on the calling thread, so an inbound request's deadline shrinks the pool wait and response timeout of this call
+    private HttpContext deadlineContext() {
+        return Deadline.current().map(deadline -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(RequestConfig.custom()
+                    .setConnectionRequestTimeout(Timeout.ofMilliseconds(deadline.cap(appConfig.getHttpClientPoolAcquireTimeoutMillis())))
+                    .setResponseTimeout(Timeout.ofMilliseconds(deadline.cap(appConfig.getHttpClientReadTimeoutMillis())))
+                    .build());
+            return (HttpContext) context;
+        }).orElse(null);
+    }
+
+
+
+    private void configureRoute(PoolingHttpClientConnectionManager connectionManager, MeterRegistry meterRegistry,
+                                String downstream, String url, int maxConnections) {
+        HttpRoute route = toRoute(url);
+        connectionManager.setMaxPerRoute(route, maxConnections);
+
+        Gauge.builder("lender.http.client.pool.route.leased", connectionManager, manager -> manager.getStats(route).getLeased())
+                .description("Connections currently leased to a downstream")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Gauge.builder("lender.http.client.pool.route.pending", connectionManager, manager -> manager.getStats(route).getPending())
+                .description("Requests waiting for a connection to a downstream")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Gauge.builder("lender.http.client.pool.route.available", connectionManager, manager -> manager.getStats(route).getAvailable())
+                .description("Idle connections kept alive for a downstream")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Gauge.builder("lender.http.client.pool.route.max", connectionManager, manager -> manager.getStats(route).getMax())
+                .description("Connection limit for a downstream")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+    }
+
+
+
+    // The pool keys routes by resolved port, so a URL without an explicit port must map to the scheme default
+    private HttpRoute toRoute(String url) {
+        URI uri = URI.create(url);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() != -1 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getScheme(), uri.getHost(), port), (InetAddress) null, secure);
+    }
 }
@@ -38,6 +38,7 @@ public class SecurityConfig {
                         .requestMatchers("/loans/request").hasRole("USER")
                         .requestMatchers("/loans/status/**").hasRole("USER")
                         .requestMatchers("/transaction-data/**").hasAnyRole("ADMIN")
+                        .requestMatchers("/scoring/callback/**").hasRole("ADMIN")
 
                         .anyRequest().authenticated()
                 )
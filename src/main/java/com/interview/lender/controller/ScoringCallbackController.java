@@ -0,0 +1,48 @@
+package com.interview.lender.controller;
+
+import com.interview.lender.dto.ResponseDto;
+import com.interview.lender.dto.ScoringResponse;
+import com.interview.lender.services.LoanService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/scoring/callback")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Scoring Callback", description = "APIs for the scoring engine to push scoring results")
+@SecurityRequirement(name = "basicAuth")
+public class ScoringCallbackController {
+
+    private final LoanService loanService;
+
+
+
+    @PostMapping("/{token}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Receive scoring result", description = "Apply a scoring result pushed by the scoring engine to the loan awaiting that token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Scoring result applied successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid scoring result"),
+            @ApiResponse(responseCode = "401", description = "Authentication required"),
+            @ApiResponse(responseCode = "404", description = "Unknown scoring token"),
+            @ApiResponse(responseCode = "409", description = "No loan is awaiting scoring for the token"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<ResponseDto> receiveScoringResult(@Parameter(description = "Scoring token", required = true) @PathVariable String token,
+                                                            @Valid @RequestBody ScoringResponse scoringResponse) {
+        var response = loanService.applyScoringCallback(token, scoringResponse);
+
+        return ResponseEntity.status(response.getHttpStatus()).body(response);
+    }
+}
@@ -1,6 +1,10 @@
 package com.interview.lender.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.interview.lender.dto.ResponseDto;
+import com.interview.lender.dto.TransactionBatchRequest;
+import com.interview.lender.dto.TransactionBatchResult;
+import com.interview.lender.resilience.Deadline;
 import com.interview.lender.services.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -8,14 +12,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/transaction-data")
@@ -26,6 +41,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class TransactionDataController {
 
     private final TransactionService transactionService;
+    private final ObjectMapper objectMapper;
 
 
 
@@ -42,4 +58,47 @@ public class TransactionDataController {
 
         return ResponseEntity.status(response.getHttpStatus()).body(response);
     }
+
+
+
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get transaction data for several customers", description = "Fetch transaction histories concurrently and stream one JSON line per customer as each completes; a failed customer is reported in its own line")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per-customer results streamed; check each line's result for partial failures"),
+            @ApiResponse(responseCode = "400", description = "Empty, blank or oversized list of customer numbers"),
+            @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
+    public ResponseEntity<StreamingResponseBody> getTransactionDataBatch(@Valid @RequestBody TransactionBatchRequest request) {
+        List<String> customerNumbers = transactionService.batchCustomerNumbers(request.getCustomerNumbers());
+        Optional<Deadline> deadline = Deadline.current();
+
+        // The body is written on an async thread, which has to carry the request's deadline over itself
+        StreamingResponseBody body = outputStream -> {
+            deadline.ifPresent(Deadline::set);
+            try {
+                transactionService.forEachTransactionHistory(customerNumbers, (customerNumber, response) -> writeLine(outputStream, customerNumber, response));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                Deadline.clear();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+
+
+    private void writeLine(OutputStream outputStream, String customerNumber, ResponseDto response) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(new TransactionBatchResult(customerNumber, response)));
+            outputStream.write('\n');
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,23 @@
+package com.interview.lender.dto;
+
+import java.util.List;
+
+// Held in compact form; each read decodes fresh TransactionDto instances, so callers never share mutable state with the cache
+public record CachedTransactionHistory(CompactTransactionHistory history, long fetchedAtNanos) {
+
+    public CachedTransactionHistory(List<TransactionDto> transactions, long fetchedAtNanos) {
+        this(CompactTransactionHistory.of(transactions), fetchedAtNanos);
+    }
+
+
+
+    public List<TransactionDto> transactions() {
+        return history.toTransactions();
+    }
+
+
+
+    public boolean isOlderThan(long ageNanos) {
+        return System.nanoTime() - fetchedAtNanos > ageNanos;
+    }
+}
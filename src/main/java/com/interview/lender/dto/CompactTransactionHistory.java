@@ -0,0 +1,237 @@
+package com.interview.lender.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+// Columnar, immutable form of a transaction history for the cache. Every numeric field of every record lives in one
+// long[]: amounts as unscaled longs with their scale in a byte[], doubles as raw bits. Amounts whose unscaled value or
+// scale do not fit are kept as BigDecimal on the side, so converting back always yields an equal TransactionDto.
+public final class CompactTransactionHistory {
+    private static final byte NULL_SCALE = Byte.MIN_VALUE;
+    private static final byte OVERFLOW_SCALE = Byte.MIN_VALUE + 1;
+    private static final long NULL_INTEGER = Long.MIN_VALUE;
+
+    private static final List<DecimalField> DECIMAL_FIELDS = List.of(
+            new DecimalField(TransactionDto::getAlternativechanneltrnscrAmount, TransactionDto::setAlternativechanneltrnscrAmount),
+            new DecimalField(TransactionDto::getAlternativechanneltrnsdebitAmount, TransactionDto::setAlternativechanneltrnsdebitAmount),
+            new DecimalField(TransactionDto::getAtmtransactionsAmount, TransactionDto::setAtmtransactionsAmount),
+            new DecimalField(TransactionDto::getBouncedchequetransactionscrAmount, TransactionDto::setBouncedchequetransactionscrAmount),
+            new DecimalField(TransactionDto::getBouncedchequetransactionsdrAmount, TransactionDto::setBouncedchequetransactionsdrAmount),
+            new DecimalField(TransactionDto::getChequeDebitTransactionsAmount, TransactionDto::setChequeDebitTransactionsAmount),
+            new DecimalField(TransactionDto::getCredittransactionsAmount, TransactionDto::setCredittransactionsAmount),
+            new DecimalField(TransactionDto::getDebitcardpostransactionsAmount, TransactionDto::setDebitcardpostransactionsAmount),
+            new DecimalField(TransactionDto::getFincominglocaltransactioncrAmount, TransactionDto::setFincominglocaltransactioncrAmount),
+            new DecimalField(TransactionDto::getIncominginternationaltrncrAmount, TransactionDto::setIncominginternationaltrncrAmount),
+            new DecimalField(TransactionDto::getIntrestAmount, TransactionDto::setIntrestAmount),
+            new DecimalField(TransactionDto::getMobilemoneycredittransactionAmount, TransactionDto::setMobilemoneycredittransactionAmount),
+            new DecimalField(TransactionDto::getMobilemoneydebittransactionAmount, TransactionDto::setMobilemoneydebittransactionAmount),
+            new DecimalField(TransactionDto::getMonthlyBalance, TransactionDto::setMonthlyBalance),
+            new DecimalField(TransactionDto::getMonthlydebittransactionsAmount, TransactionDto::setMonthlydebittransactionsAmount),
+            new DecimalField(TransactionDto::getOutgoinginttransactiondebitAmount, TransactionDto::setOutgoinginttransactiondebitAmount),
+            new DecimalField(TransactionDto::getOutgoinglocaltransactiondebitAmount, TransactionDto::setOutgoinglocaltransactiondebitAmount),
+            new DecimalField(TransactionDto::getOverdraftLimit, TransactionDto::setOverdraftLimit),
+            new DecimalField(TransactionDto::getOverthecounterwithdrawalsAmount, TransactionDto::setOverthecounterwithdrawalsAmount),
+            new DecimalField(TransactionDto::getTransactionValue, TransactionDto::setTransactionValue)
+    );
+    private static final List<LongField> LONG_FIELDS = List.of(
+            new LongField(TransactionDto::getAlternativechanneltrnscrNumber, TransactionDto::setAlternativechanneltrnscrNumber),
+            new LongField(TransactionDto::getAlternativechanneltrnsdebitNumber, TransactionDto::setAlternativechanneltrnsdebitNumber),
+            new LongField(TransactionDto::getAtmTransactionsNumber, TransactionDto::setAtmTransactionsNumber),
+            new LongField(TransactionDto::getCreatedAt, TransactionDto::setCreatedAt),
+            new LongField(TransactionDto::getCreatedDate, TransactionDto::setCreatedDate),
+            new LongField(TransactionDto::getDebitcardpostransactionsNumber, TransactionDto::setDebitcardpostransactionsNumber),
+            new LongField(TransactionDto::getIncominginternationaltrncrNumber, TransactionDto::setIncominginternationaltrncrNumber),
+            new LongField(TransactionDto::getLastTransactionDate, TransactionDto::setLastTransactionDate),
+            new LongField(TransactionDto::getMobilemoneycredittransactionNumber, TransactionDto::setMobilemoneycredittransactionNumber),
+            new LongField(TransactionDto::getMobilemoneydebittransactionNumber, TransactionDto::setMobilemoneydebittransactionNumber),
+            new LongField(TransactionDto::getOutgoinginttrndebitNumber, TransactionDto::setOutgoinginttrndebitNumber),
+            new LongField(TransactionDto::getOutgoinglocaltransactiondebitNumber, TransactionDto::setOutgoinglocaltransactiondebitNumber),
+            new LongField(TransactionDto::getOverthecounterwithdrawalsNumber, TransactionDto::setOverthecounterwithdrawalsNumber),
+            new LongField(TransactionDto::getUpdatedAt, TransactionDto::setUpdatedAt)
+    );
+    private static final List<IntField> INT_FIELDS = List.of(
+            new IntField(TransactionDto::getBouncedChequesDebitNumber, TransactionDto::setBouncedChequesDebitNumber),
+            new IntField(TransactionDto::getBouncedchequescreditNumber, TransactionDto::setBouncedchequescreditNumber),
+            new IntField(TransactionDto::getChequeDebitTransactionsNumber, TransactionDto::setChequeDebitTransactionsNumber),
+            new IntField(TransactionDto::getId, TransactionDto::setId),
+            new IntField(TransactionDto::getIncominglocaltransactioncrNumber, TransactionDto::setIncominglocaltransactioncrNumber),
+            new IntField(TransactionDto::getLastTransactionValue, TransactionDto::setLastTransactionValue)
+    );
+    private static final List<DoubleField> DOUBLE_FIELDS = List.of(
+            new DoubleField(TransactionDto::getMaxAtmTransactions, TransactionDto::setMaxAtmTransactions),
+            new DoubleField(TransactionDto::getMaxMonthlyBebitTransactions, TransactionDto::setMaxMonthlyBebitTransactions),
+            new DoubleField(TransactionDto::getMaxalternativechanneltrnscr, TransactionDto::setMaxalternativechanneltrnscr),
+            new DoubleField(TransactionDto::getMaxalternativechanneltrnsdebit, TransactionDto::setMaxalternativechanneltrnsdebit),
+            new DoubleField(TransactionDto::getMaxbouncedchequetransactionscr, TransactionDto::setMaxbouncedchequetransactionscr),
+            new DoubleField(TransactionDto::getMaxchequedebittransactions, TransactionDto::setMaxchequedebittransactions),
+            new DoubleField(TransactionDto::getMaxdebitcardpostransactions, TransactionDto::setMaxdebitcardpostransactions),
+            new DoubleField(TransactionDto::getMaxincominginternationaltrncr, TransactionDto::setMaxincominginternationaltrncr),
+            new DoubleField(TransactionDto::getMaxincominglocaltransactioncr, TransactionDto::setMaxincominglocaltransactioncr),
+            new DoubleField(TransactionDto::getMaxmobilemoneycredittrn, TransactionDto::setMaxmobilemoneycredittrn),
+            new DoubleField(TransactionDto::getMaxmobilemoneydebittransaction, TransactionDto::setMaxmobilemoneydebittransaction),
+            new DoubleField(TransactionDto::getMaxmonthlycredittransactions, TransactionDto::setMaxmonthlycredittransactions),
+            new DoubleField(TransactionDto::getMaxoutgoinginttrndebit, TransactionDto::setMaxoutgoinginttrndebit),
+            new DoubleField(TransactionDto::getMaxoutgoinglocaltrndebit, TransactionDto::setMaxoutgoinglocaltrndebit),
+            new DoubleField(TransactionDto::getMaxoverthecounterwithdrawals, TransactionDto::setMaxoverthecounterwithdrawals),
+            new DoubleField(TransactionDto::getMinAtmTransactions, TransactionDto::setMinAtmTransactions),
+            new DoubleField(TransactionDto::getMinMonthlyDebitTransactions, TransactionDto::setMinMonthlyDebitTransactions),
+            new DoubleField(TransactionDto::getMinalternativechanneltrnscr, TransactionDto::setMinalternativechanneltrnscr),
+            new DoubleField(TransactionDto::getMinalternativechanneltrnsdebit, TransactionDto::setMinalternativechanneltrnsdebit),
+            new DoubleField(TransactionDto::getMinbouncedchequetransactionscr, TransactionDto::setMinbouncedchequetransactionscr),
+            new DoubleField(TransactionDto::getMinchequedebittransactions, TransactionDto::setMinchequedebittransactions),
+            new DoubleField(TransactionDto::getMindebitcardpostransactions, TransactionDto::setMindebitcardpostransactions),
+            new DoubleField(TransactionDto::getMinincominginternationaltrncr, TransactionDto::setMinincominginternationaltrncr),
+            new DoubleField(TransactionDto::getMinincominglocaltransactioncr, TransactionDto::setMinincominglocaltransactioncr),
+            new DoubleField(TransactionDto::getMinmobilemoneycredittrn, TransactionDto::setMinmobilemoneycredittrn),
+            new DoubleField(TransactionDto::getMinmobilemoneydebittransaction, TransactionDto::setMinmobilemoneydebittransaction),
+            new DoubleField(TransactionDto::getMinmonthlycredittransactions, TransactionDto::setMinmonthlycredittransactions),
+            new DoubleField(TransactionDto::getMinoutgoinginttrndebit, TransactionDto::setMinoutgoinginttrndebit),
+            new DoubleField(TransactionDto::getMinoutgoinglocaltrndebit, TransactionDto::setMinoutgoinglocaltrndebit),
+            new DoubleField(TransactionDto::getMinoverthecounterwithdrawals, TransactionDto::setMinoverthecounterwithdrawals)
+    );
+
+    private static final int DECIMALS = DECIMAL_FIELDS.size();
+    private static final int LONGS_OFFSET = DECIMALS;
+    private static final int INTS_OFFSET = LONGS_OFFSET + LONG_FIELDS.size();
+    private static final int LAST_TRANSACTION_TYPE_OFFSET = INTS_OFFSET + INT_FIELDS.size();
+    private static final int DOUBLES_OFFSET = LAST_TRANSACTION_TYPE_OFFSET + 1;
+    private static final int STRIDE = DOUBLES_OFFSET + DOUBLE_FIELDS.size();
+
+    private final int size;
+    private final String[] accountNumbers;
+    private final long[] words;
+    private final byte[] scales;
+    private final Map<Integer, BigDecimal> overflow;
+
+
+
+    private CompactTransactionHistory(int size, String[] accountNumbers, long[] words, byte[] scales, Map<Integer, BigDecimal> overflow) {
+        this.size = size;
+        this.accountNumbers = accountNumbers;
+        this.words = words;
+        this.scales = scales;
+        this.overflow = overflow;
+    }
+
+
+
+    public static CompactTransactionHistory of(List<TransactionDto> transactions) {
+        int size = transactions.size();
+        String[] accountNumbers = new String[size];
+        long[] words = new long[size * STRIDE];
+        byte[] scales = new byte[size * DECIMALS];
+        Map<Integer, BigDecimal> overflow = new HashMap<>();
+
+        for (int row = 0; row < size; row++) {
+            TransactionDto transaction = transactions.get(row);
+            int base = row * STRIDE;
+            accountNumbers[row] = transaction.getAccountNumber();
+
+            for (int i = 0; i < DECIMALS; i++) {
+                int slot = row * DECIMALS + i;
+                BigDecimal value = DECIMAL_FIELDS.get(i).getter().apply(transaction);
+                if (value == null) {
+                    scales[slot] = NULL_SCALE;
+                } else if (fitsCompact(value)) {
+                    words[base + i] = value.unscaledValue().longValue();
+                    scales[slot] = (byte) value.scale();
+                } else {
+                    scales[slot] = OVERFLOW_SCALE;
+                    overflow.put(slot, value);
+                }
+            }
+            for (int i = 0; i < LONG_FIELDS.size(); i++) {
+                words[base + LONGS_OFFSET + i] = LONG_FIELDS.get(i).getter().applyAsLong(transaction);
+            }
+            for (int i = 0; i < INT_FIELDS.size(); i++) {
+                words[base + INTS_OFFSET + i] = INT_FIELDS.get(i).getter().applyAsInt(transaction);
+            }
+            Integer lastTransactionType = transaction.getLastTransactionType();
+            words[base + LAST_TRANSACTION_TYPE_OFFSET] = lastTransactionType == null ? NULL_INTEGER : lastTransactionType;
+            for (int i = 0; i < DOUBLE_FIELDS.size(); i++) {
+                words[base + DOUBLES_OFFSET + i] = Double.doubleToRawLongBits(DOUBLE_FIELDS.get(i).getter().applyAsDouble(transaction));
+            }
+        }
+
+        return new CompactTransactionHistory(size, accountNumbers, words, scales, Map.copyOf(overflow));
+    }
+
+
+
+    public int size() {
+        return size;
+    }
+
+
+
+    public TransactionDto get(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+
+        TransactionDto transaction = new TransactionDto();
+        int base = row * STRIDE;
+        transaction.setAccountNumber(accountNumbers[row]);
+
+        for (int i = 0; i < DECIMALS; i++) {
+            int slot = row * DECIMALS + i;
+            DECIMAL_FIELDS.get(i).setter().accept(transaction, decimalAt(slot, words[base + i]));
+        }
+        for (int i = 0; i < LONG_FIELDS.size(); i++) {
+            LONG_FIELDS.get(i).setter().accept(transaction, words[base + LONGS_OFFSET + i]);
+        }
+        for (int i = 0; i < INT_FIELDS.size(); i++) {
+            INT_FIELDS.get(i).setter().accept(transaction, (int) words[base + INTS_OFFSET + i]);
+        }
+        long lastTransactionType = words[base + LAST_TRANSACTION_TYPE_OFFSET];
+        transaction.setLastTransactionType(lastTransactionType == NULL_INTEGER ? null : (int) lastTransactionType);
+        for (int i = 0; i < DOUBLE_FIELDS.size(); i++) {
+            DOUBLE_FIELDS.get(i).setter().accept(transaction, Double.longBitsToDouble(words[base + DOUBLES_OFFSET + i]));
+        }
+
+        return transaction;
+    }
+
+
+
+    public List<TransactionDto> toTransactions() {
+        List<TransactionDto> transactions = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) transactions.add(get(row));
+        return transactions;
+    }
+
+
+
+    private BigDecimal decimalAt(int slot, long unscaled) {
+        byte scale = scales[slot];
+        if (scale == NULL_SCALE) return null;
+        if (scale == OVERFLOW_SCALE) return overflow.get(slot);
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+
+
+    // Both sentinel scales are reserved, so only scales above them are stored inline
+    private static boolean fitsCompact(BigDecimal value) {
+        return value.scale() > OVERFLOW_SCALE && value.scale() <= Byte.MAX_VALUE && value.unscaledValue().bitLength() < Long.SIZE;
+    }
+
+
+
+    private record DecimalField(Function<TransactionDto, BigDecimal> getter, BiConsumer<TransactionDto, BigDecimal> setter) {}
+
+    private record LongField(ToLongFunction<TransactionDto> getter, ObjLongConsumer<TransactionDto> setter) {}
+
+    private record IntField(ToIntFunction<TransactionDto> getter, ObjIntConsumer<TransactionDto> setter) {}
+
+    private record DoubleField(ToDoubleFunction<TransactionDto> getter, ObjDoubleConsumer<TransactionDto> setter) {}
+}
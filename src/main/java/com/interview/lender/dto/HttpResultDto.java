@@ -17,4 +17,6 @@ public class HttpResultDto {
     private String error = "";
     @Builder.Default
     private boolean success = false;
+    // Time spent on the single attempt that produced this result; 0 when a guard rejected the call before it was sent
+    private long latencyNanos;
 }
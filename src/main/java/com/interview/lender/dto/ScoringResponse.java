@@ -1,5 +1,6 @@
 package com.interview.lender.dto;
 
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,8 +13,11 @@ import java.math.BigDecimal;
 public class ScoringResponse {
     private Long id;
     private String customerNumber;
+    @NotNull
     private Integer score;
+    @NotNull
     private BigDecimal limitAmount;
+    @NotNull
     private String exclusion;
     private String exclusionReason;
 }
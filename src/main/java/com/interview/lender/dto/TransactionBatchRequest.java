@@ -0,0 +1,17 @@
+package com.interview.lender.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchRequest {
+    @NotEmpty(message = "At least one customer number is required")
+    private List<@NotBlank(message = "Customer number is required") String> customerNumbers;
+}
@@ -0,0 +1,14 @@
+package com.interview.lender.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchResult {
+    private String customerNumber;
+
+    private ResponseDto result;
+}
@@ -41,4 +41,13 @@ public class Loan extends BaseEntity {
     private LocalDateTime disbursementDate;
 
     private Integer retryCount;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private String claimedBy;
+    private LocalDateTime leaseUntil;
+
+    @Version
+    private Long version;
 }
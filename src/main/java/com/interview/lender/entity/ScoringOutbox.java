@@ -0,0 +1,37 @@
+package com.interview.lender.entity;
+
+import com.interview.lender.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@EqualsAndHashCode(callSuper = false)
+@Entity
+@Table(name = "scoring_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScoringOutbox extends BaseEntity {
+
+    @Column(nullable = false, unique = true)
+    private Long loanId;
+
+    @Column(nullable = false)
+    private String customerNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    private Integer attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private String claimedBy;
+    private LocalDateTime leaseUntil;
+    private String lastError;
+    private LocalDateTime dispatchedAt;
+}
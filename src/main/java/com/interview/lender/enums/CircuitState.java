@@ -0,0 +1,7 @@
+package com.interview.lender.enums;
+
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN;
+}
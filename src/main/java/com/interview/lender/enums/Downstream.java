@@ -0,0 +1,8 @@
+package com.interview.lender.enums;
+
+public enum Downstream {
+    KYC,
+    TRANSACTIONS,
+    SCORING,
+    OTHER;
+}
@@ -0,0 +1,7 @@
+package com.interview.lender.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    DISPATCHED,
+    FAILED;
+}
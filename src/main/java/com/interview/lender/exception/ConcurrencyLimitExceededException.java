@@ -0,0 +1,9 @@
+package com.interview.lender.exception;
+
+// Raised before any call is made, so the work can simply be rescheduled rather than counted as a downstream failure
+public class ConcurrencyLimitExceededException extends ExternalServiceException {
+
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -45,6 +46,14 @@ public class GlobalExceptionHandler {
 
 
 
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ResponseDto> handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException exception) {
+        log.warn("[Concurrent Update] Entity changed since it was read: {}", exception.getMessage());
+        return buildResponse(HttpStatus.CONFLICT, "The record was updated by another request. Please try again.", exception.getMessage());
+    }
+
+
+
     @ExceptionHandler(DuplicateKeyException.class)
     public ResponseEntity<ResponseDto> handleDuplicateKeyException(DuplicateKeyException exception) {
         log.error("[Duplicate Key] Entry already exists: {}", exception.getMessage(), exception);
@@ -125,6 +134,14 @@ public class GlobalExceptionHandler {
 
 
 
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ResponseDto> handleDeadlineExceededException(DeadlineExceededException exception) {
+        log.warn("[Deadline Exceeded] Request budget ran out: {}", exception.getMessage());
+        return buildResponse(HttpStatus.GATEWAY_TIMEOUT, "The request took too long to complete. Please try again.", exception.getMessage());
+    }
+
+
+
     private ResponseEntity<ResponseDto> buildResponse(HttpStatus status, String message, Object payload) {
         ResponseDto responseDto = ResponseDto.builder()
                 .httpStatus(status)
@@ -11,6 +11,8 @@ import java.util.Optional;
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByCustomerNumber(String customerNumber);
 
+    Optional<Customer> findByScoringToken(String scoringToken);
+
     List<Customer> findByCustomerNumberIn(List<String> customerNumbers);
 
     boolean existsByCustomerNumber(String customerNumber);
@@ -1,22 +1,31 @@
 package com.interview.lender.repository;
 
 import com.interview.lender.entity.Loan;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface LoanRepository extends JpaRepository<Loan, Long> {
+public interface LoanRepository extends JpaRepository<Loan, Long>, LoanRepositoryCustom {
 
     List<Loan> findByCustomerNumber(String customerNumber);
 
     @Query("SELECT l FROM Loan l WHERE l.customerNumber = :customerNumber AND l.status IN ('PENDING', 'SCORING_IN_PROGRESS')")
     Optional<Loan> findOngoingLoanByCustomerNumber(String customerNumber);
 
-    @Query("SELECT l FROM Loan l WHERE l.status = 'SCORING_IN_PROGRESS' AND l.retryCount < :maxRetries ORDER BY l.id DESC")
-    List<Loan> findLoansForScoring(Integer maxRetries, Pageable pageable);
+    // Lock timeout -2 is rendered by Hibernate as FOR UPDATE SKIP LOCKED, so concurrent nodes never block on each other's rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT l FROM Loan l WHERE l.status = 'SCORING_IN_PROGRESS' AND l.nextAttemptAt <= :now AND l.retryCount < :maxRetries " +
+           "AND (l.leaseUntil IS NULL OR l.leaseUntil < :now) ORDER BY l.nextAttemptAt ASC")
+    List<Loan> findLoansForScoring(Integer maxRetries, LocalDateTime now, Pageable pageable);
 }
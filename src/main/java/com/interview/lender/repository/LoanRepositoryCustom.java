@@ -0,0 +1,15 @@
+package com.interview.lender.repository;
+
+import com.interview.lender.entity.Loan;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface LoanRepositoryCustom {
+
+    int batchUpdateScoringOutcomes(Collection<Loan> loans, LocalDateTime now);
+
+    int bumpScoringRetries(Collection<Long> loanIds, int maxRetries, long baseDelayMillis, long maxDelayMillis, LocalDateTime now);
+
+    int deferScoring(Collection<Long> loanIds, LocalDateTime nextAttemptAt, LocalDateTime now);
+}
@@ -0,0 +1,97 @@
+package com.interview.lender.repository;
+
+import com.interview.lender.entity.Loan;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class LoanRepositoryCustomImpl implements LoanRepositoryCustom {
+
+    // The status guard keeps a result that already arrived through the scoring callback from being overwritten
+    private static final String UPDATE_SCORING_OUTCOME = """
+            UPDATE loans
+            SET status = :status, credit_score = :creditScore, credit_limit = :creditLimit, exclusion = :exclusion,
+                exclusion_reason = :exclusionReason, approved_amount = :approvedAmount, approval_date = :approvalDate,
+                claimed_by = NULL, lease_until = NULL, updated_at = :now, version = version + 1
+            WHERE id = :id AND status = 'SCORING_IN_PROGRESS'
+            """;
+
+    // Same equal-jitter backoff as Util.backoffWithJitter, evaluated per row against the pre-update retry_count
+    private static final String BUMP_SCORING_RETRIES = """
+            UPDATE loans
+            SET retry_count = retry_count + 1,
+                status = CASE WHEN retry_count + 1 >= :maxRetries THEN 'FAILED' ELSE status END,
+                next_attempt_at = CASE WHEN retry_count + 1 >= :maxRetries THEN next_attempt_at
+                    ELSE :now + LEAST(:maxDelayMillis, :baseDelayMillis * POWER(2, LEAST(retry_count, 20))) * (0.5 + random() / 2) * INTERVAL '1 millisecond'
+                END,
+                claimed_by = NULL, lease_until = NULL, updated_at = :now, version = version + 1
+            WHERE id IN (:ids) AND status = 'SCORING_IN_PROGRESS'
+            """;
+
+    // Releases the lease and pushes the next poll out without spending a retry: the query was never sent
+    private static final String DEFER_SCORING = """
+            UPDATE loans
+            SET next_attempt_at = :nextAttemptAt, claimed_by = NULL, lease_until = NULL, updated_at = :now, version = version + 1
+            WHERE id IN (:ids) AND status = 'SCORING_IN_PROGRESS'
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+
+
+    @Override
+    public int batchUpdateScoringOutcomes(Collection<Loan> loans, LocalDateTime now) {
+        if (loans.isEmpty()) return 0;
+
+        SqlParameterSource[] batch = loans.stream()
+                .map(loan -> new MapSqlParameterSource()
+                        .addValue("id", loan.getId())
+                        .addValue("status", loan.getStatus().name())
+                        .addValue("creditScore", loan.getCreditScore())
+                        .addValue("creditLimit", loan.getCreditLimit())
+                        .addValue("exclusion", loan.getExclusion())
+                        .addValue("exclusionReason", loan.getExclusionReason())
+                        .addValue("approvedAmount", loan.getApprovedAmount())
+                        .addValue("approvalDate", loan.getApprovalDate())
+                        .addValue("now", now))
+                .toArray(SqlParameterSource[]::new);
+
+        return Arrays.stream(jdbcTemplate.batchUpdate(UPDATE_SCORING_OUTCOME, batch)).map(count -> Math.max(count, 0)).sum();
+    }
+
+
+
+    @Override
+    public int bumpScoringRetries(Collection<Long> loanIds, int maxRetries, long baseDelayMillis, long maxDelayMillis, LocalDateTime now) {
+        if (loanIds.isEmpty()) return 0;
+
+        var params = new MapSqlParameterSource()
+                .addValue("ids", loanIds)
+                .addValue("maxRetries", maxRetries)
+                .addValue("baseDelayMillis", baseDelayMillis)
+                .addValue("maxDelayMillis", maxDelayMillis)
+                .addValue("now", now);
+
+        return jdbcTemplate.update(BUMP_SCORING_RETRIES, params);
+    }
+
+
+
+    @Override
+    public int deferScoring(Collection<Long> loanIds, LocalDateTime nextAttemptAt, LocalDateTime now) {
+        if (loanIds.isEmpty()) return 0;
+
+        var params = new MapSqlParameterSource()
+                .addValue("ids", loanIds)
+                .addValue("nextAttemptAt", nextAttemptAt)
+                .addValue("now", now);
+
+        return jdbcTemplate.update(DEFER_SCORING, params);
+    }
+}
@@ -0,0 +1,24 @@
+package com.interview.lender.repository;
+
+import com.interview.lender.entity.ScoringOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ScoringOutboxRepository extends JpaRepository<ScoringOutbox, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM ScoringOutbox o WHERE o.status = 'PENDING' AND o.nextAttemptAt <= :now " +
+           "AND (o.leaseUntil IS NULL OR o.leaseUntil < :now) ORDER BY o.nextAttemptAt ASC")
+    List<ScoringOutbox> findDueEntries(LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,117 @@
+package com.interview.lender.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// AIMD: the limit grows by roughly one per limit's worth of fast, successful calls and is cut by
+// backoffRatio whenever a call fails or comes back slower than the latency threshold
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+
+
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, long latencyThresholdMillis) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+    }
+
+
+
+    public boolean tryAcquire(long maxWaitMillis) {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMillis));
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remainingNanos <= 0) return false;
+                remainingNanos = permitReleased.awaitNanos(remainingNanos);
+            }
+            inFlight++;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+
+    public void release(long latencyNanos, boolean failed) {
+        lock.lock();
+        try {
+            // Only grow while the current limit is actually being used, otherwise an idle period inflates it
+            boolean saturated = inFlight * 2 >= limit;
+            inFlight--;
+
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                double previous = limit;
+                limit = Math.max(minLimit, limit * backoffRatio);
+                if ((int) previous != (int) limit) {
+                    log.info("Concurrency limit decreased | name: {}, limit: {}, failed: {}, latency ms: {}",
+                            name, (int) limit, failed, TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+                }
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+
+    // For a permit whose call never reached the downstream: frees the slot without feeding the limit a sample
+    public void releaseUnsampled() {
+        lock.lock();
+        try {
+            inFlight--;
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
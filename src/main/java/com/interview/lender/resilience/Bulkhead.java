@@ -0,0 +1,48 @@
+package com.interview.lender.resilience;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class Bulkhead {
+
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+
+
+
+    public Bulkhead(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = Math.max(1, maxConcurrentCalls);
+        this.permits = new Semaphore(this.maxConcurrentCalls);
+    }
+
+
+
+    public boolean tryAcquire(long maxWaitMillis) {
+        if (maxWaitMillis <= 0) return permits.tryAcquire();
+
+        try {
+            return permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+
+
+    public void release() {
+        permits.release();
+    }
+
+
+
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+}
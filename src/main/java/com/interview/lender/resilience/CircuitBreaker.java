@@ -0,0 +1,137 @@
+package com.interview.lender.resilience;
+
+import com.interview.lender.enums.CircuitState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+@Slf4j
+public class CircuitBreaker {
+
+    private final String name;
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenPermittedCalls;
+    private final LongSupplier nanoClock;
+
+    // Outcomes of the last N calls while closed, true meaning failed
+    private final boolean[] window;
+    private int windowIndex;
+    private int bufferedCalls;
+    private int bufferedFailures;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private long openedAt;
+    private int halfOpenIssued;
+    private int halfOpenSucceeded;
+
+
+
+    public CircuitBreaker(String name, int failureRateThreshold, int slidingWindowSize, int minimumCalls,
+                          long openDurationMillis, int halfOpenPermittedCalls) {
+        this(name, failureRateThreshold, slidingWindowSize, minimumCalls, openDurationMillis, halfOpenPermittedCalls, System::nanoTime);
+    }
+
+
+
+    CircuitBreaker(String name, int failureRateThreshold, int slidingWindowSize, int minimumCalls,
+                   long openDurationMillis, int halfOpenPermittedCalls, LongSupplier nanoClock) {
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[Math.max(1, slidingWindowSize)];
+        this.minimumCalls = Math.clamp(minimumCalls, 1, window.length);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.halfOpenPermittedCalls = Math.max(1, halfOpenPermittedCalls);
+        this.nanoClock = nanoClock;
+    }
+
+
+
+    public synchronized boolean tryAcquirePermission() {
+        if (state == CircuitState.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openDurationNanos) return false;
+            transitionTo(CircuitState.HALF_OPEN);
+        }
+
+        if (state == CircuitState.HALF_OPEN) {
+            if (halfOpenIssued >= halfOpenPermittedCalls) return false;
+            halfOpenIssued++;
+        }
+
+        return true;
+    }
+
+
+
+    public synchronized void onSuccess() {
+        if (state == CircuitState.HALF_OPEN) {
+            if (++halfOpenSucceeded >= halfOpenPermittedCalls) transitionTo(CircuitState.CLOSED);
+        } else if (state == CircuitState.CLOSED) {
+            record(false);
+        }
+    }
+
+
+
+    public synchronized void onFailure() {
+        if (state == CircuitState.HALF_OPEN) {
+            transitionTo(CircuitState.OPEN);
+        } else if (state == CircuitState.CLOSED) {
+            record(true);
+            if (bufferedCalls >= minimumCalls && getFailureRate() >= failureRateThreshold) transitionTo(CircuitState.OPEN);
+        }
+    }
+
+
+
+    public synchronized CircuitState getState() {
+        return state;
+    }
+
+
+
+    public synchronized float getFailureRate() {
+        return bufferedCalls == 0 ? 0f : bufferedFailures * 100f / bufferedCalls;
+    }
+
+
+
+    public synchronized int getBufferedCalls() {
+        return bufferedCalls;
+    }
+
+
+
+    private void record(boolean failed) {
+        if (bufferedCalls == window.length) {
+            if (window[windowIndex]) bufferedFailures--;
+        } else {
+            bufferedCalls++;
+        }
+
+        window[windowIndex] = failed;
+        if (failed) bufferedFailures++;
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+
+
+    private void transitionTo(CircuitState newState) {
+        log.warn("Circuit breaker state change | name: {}, from: {}, to: {}, failure rate: {}%", name, state, newState, getFailureRate());
+        state = newState;
+        halfOpenIssued = 0;
+        halfOpenSucceeded = 0;
+        if (newState == CircuitState.OPEN) openedAt = nanoClock.getAsLong();
+        if (newState == CircuitState.CLOSED) resetWindow();
+    }
+
+
+
+    private void resetWindow() {
+        windowIndex = 0;
+        bufferedCalls = 0;
+        bufferedFailures = 0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.interview.lender.resilience;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+public final class Deadline {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+
+
+    public static Deadline afterMillis(long millis) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+
+
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+
+
+    public static void set(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+
+
+    // Timeout to use for a call made on this thread: the configured one, or what is left of the budget if that is shorter
+    public static long capToCurrent(long timeoutMillis) {
+        return current().map(deadline -> deadline.cap(timeoutMillis)).orElse(timeoutMillis);
+    }
+
+
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime());
+    }
+
+
+
+    public boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+
+
+
+    // Never returns 0, which both HTTP clients read as "no timeout"
+    public long cap(long timeoutMillis) {
+        return Math.max(1, Math.min(timeoutMillis, remainingMillis()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.interview.lender.resilience;
+
+import com.interview.lender.config.AppConfig;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final AppConfig appConfig;
+
+
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Deadline.set(Deadline.afterMillis(resolveBudgetMillis(request)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+
+
+    long resolveBudgetMillis(HttpServletRequest request) {
+        String header = request.getHeader(appConfig.getDeadlineHeader());
+        if (header != null && !header.isBlank()) {
+            try {
+                return Math.clamp(Long.parseLong(header.trim()), 1, appConfig.getDeadlineMaxMillis());
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring invalid deadline header | {}: {}", appConfig.getDeadlineHeader(), header);
+            }
+        }
+
+        return endpointBudgetMillis(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+
+
+    // Longest configured path prefix wins, so /loans/status/** can differ from /loans/**
+    private long endpointBudgetMillis(String path) {
+        return appConfig.getDeadlineEndpoints().entrySet().stream()
+                .filter(entry -> path.startsWith(entry.getKey()))
+                .max(Comparator.comparingInt(entry -> entry.getKey().length()))
+                .map(Map.Entry::getValue)
+                .orElse(appConfig.getDeadlineDefaultMillis());
+    }
+}
@@ -0,0 +1,205 @@
+package com.interview.lender.resilience;
+
+import com.interview.lender.dto.HttpResultDto;
+import com.interview.lender.enums.CircuitState;
+import com.interview.lender.enums.Downstream;
+import com.interview.lender.util.Util;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Slf4j
+@Getter
+@Builder
+public class DownstreamGuard {
+
+    private final Downstream downstream;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final long bulkheadMaxWaitMillis;
+    @Builder.Default
+    private final RetryBudget retryBudget = new RetryBudget(0, 1);
+    private final int maxRetries;
+    private final long retryBaseDelayMillis;
+    private final long retryMaxDelayMillis;
+
+
+
+    public HttpResultDto execute(Supplier<HttpResultDto> call) {
+        return execute(call, false);
+    }
+
+
+
+    public HttpResultDto execute(Supplier<HttpResultDto> call, boolean retryable) {
+        retryBudget.onRequest();
+        HttpResultDto result = executeOnce(call);
+
+        for (int retry = 1; retryable && shouldRetry(result, retry); retry++) {
+            long delayMillis = Util.fullJitterBackoff(retryBaseDelayMillis, retry, retryMaxDelayMillis).toMillis();
+            if (!fitsDeadline(Deadline.current(), delayMillis) || !sleep(delayMillis)) break;
+
+            log.info("Retrying downstream call | downstream: {}, retry: {}, previous status: {}", downstream, retry, result.getStatusCode());
+            result = executeOnce(call);
+        }
+
+        return result;
+    }
+
+
+
+    public CompletableFuture<HttpResultDto> executeAsync(Supplier<CompletableFuture<HttpResultDto>> call) {
+        return executeAsync(call, false);
+    }
+
+
+
+    public CompletableFuture<HttpResultDto> executeAsync(Supplier<CompletableFuture<HttpResultDto>> call, boolean retryable) {
+        retryBudget.onRequest();
+        return executeAsync(call, retryable, 1, Deadline.current());
+    }
+
+
+
+    private CompletableFuture<HttpResultDto> executeAsync(Supplier<CompletableFuture<HttpResultDto>> call, boolean retryable,
+                                                         int retry, Optional<Deadline> deadline) {
+        return executeOnceAsync(call).thenCompose(result -> {
+            if (!retryable || !shouldRetry(result, retry)) return CompletableFuture.completedFuture(result);
+
+            long delayMillis = Util.fullJitterBackoff(retryBaseDelayMillis, retry, retryMaxDelayMillis).toMillis();
+            if (!fitsDeadline(deadline, delayMillis)) return CompletableFuture.completedFuture(result);
+
+            log.info("Retrying downstream call | downstream: {}, retry: {}, previous status: {}", downstream, retry, result.getStatusCode());
+            Executor delayed = CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS);
+            // The retry runs on another thread, so the caller's deadline is carried over for the request timeout
+            return CompletableFuture.supplyAsync(() -> withDeadline(deadline, () -> executeAsync(call, true, retry + 1, deadline)), delayed)
+                    .thenCompose(Function.identity());
+        });
+    }
+
+
+
+    private HttpResultDto executeOnce(Supplier<HttpResultDto> call) {
+        if (!bulkhead.tryAcquire(bulkheadMaxWaitMillis)) return rejected("Bulkhead full");
+
+        try {
+            if (!circuitBreaker.tryAcquirePermission()) return rejected("Circuit open");
+
+            HttpResultDto result;
+            try {
+                result = call.get();
+            } catch (RuntimeException e) {
+                circuitBreaker.onFailure();
+                throw e;
+            }
+            recordOutcome(result);
+            return result;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+
+
+    private CompletableFuture<HttpResultDto> executeOnceAsync(Supplier<CompletableFuture<HttpResultDto>> call) {
+        // Never park the caller here; a full bulkhead is rejected straight away
+        if (!bulkhead.tryAcquire(0)) return CompletableFuture.completedFuture(rejected("Bulkhead full"));
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            return CompletableFuture.completedFuture(rejected("Circuit open"));
+        }
+
+        CompletableFuture<HttpResultDto> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            bulkhead.release();
+            throw e;
+        }
+
+        return future.whenComplete((result, e) -> {
+            try {
+                if (e != null) circuitBreaker.onFailure();
+                else recordOutcome(result);
+            } finally {
+                bulkhead.release();
+            }
+        });
+    }
+
+
+
+    // Retrying into an open circuit only produces another rejection, and the budget keeps retries from multiplying load
+    private boolean shouldRetry(HttpResultDto result, int retry) {
+        return retry <= maxRetries
+               && isFailure(result)
+               && circuitBreaker.getState() != CircuitState.OPEN
+               && retryBudget.tryAcquireRetry();
+    }
+
+
+
+    private boolean fitsDeadline(Optional<Deadline> deadline, long delayMillis) {
+        return deadline.map(d -> d.remainingMillis() > delayMillis).orElse(true);
+    }
+
+
+
+    private boolean sleep(long delayMillis) {
+        try {
+            Thread.sleep(delayMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+
+
+    private <T> T withDeadline(Optional<Deadline> deadline, Supplier<T> task) {
+        deadline.ifPresent(Deadline::set);
+        try {
+            return task.get();
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+
+
+    private void recordOutcome(HttpResultDto result) {
+        if (isFailure(result)) circuitBreaker.onFailure();
+        else circuitBreaker.onSuccess();
+    }
+
+
+
+    // 4xx answers mean the downstream is up and talking; only server errors, timeouts and throttling count against it
+    private boolean isFailure(HttpResultDto result) {
+        int statusCode = result.getStatusCode();
+        return statusCode >= 500
+               || statusCode == HttpStatus.REQUEST_TIMEOUT.value()
+               || statusCode == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+
+
+    private HttpResultDto rejected(String reason) {
+        log.warn("Downstream call rejected | downstream: {}, reason: {}", downstream, reason);
+
+        return HttpResultDto.builder()
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error(reason + " for " + downstream)
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.interview.lender.resilience;
+
+import com.interview.lender.enums.CircuitState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "downstreams")
+public class DownstreamResilienceEndpoint {
+
+    private final DownstreamResilienceRegistry downstreamResilienceRegistry;
+
+
+
+    @ReadOperation
+    public Map<String, DownstreamStatus> downstreams() {
+        Map<String, DownstreamStatus> statuses = new LinkedHashMap<>();
+        downstreamResilienceRegistry.getGuards().forEach((downstream, guard) -> statuses.put(downstream.name(), new DownstreamStatus(
+                guard.getCircuitBreaker().getState(),
+                guard.getCircuitBreaker().getFailureRate(),
+                guard.getCircuitBreaker().getBufferedCalls(),
+                guard.getBulkhead().getAvailable(),
+                guard.getBulkhead().getMaxConcurrentCalls(),
+                guard.getRetryBudget().getAvailableRetries())));
+
+        return statuses;
+    }
+
+
+
+    public record DownstreamStatus(CircuitState state, float failureRate, int bufferedCalls,
+                                   int bulkheadAvailable, int bulkheadMaxConcurrentCalls, double retriesAvailable) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.interview.lender.resilience;
+
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.enums.Downstream;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+@Slf4j
+public class DownstreamResilienceRegistry {
+
+    private final AppConfig appConfig;
+    private final Map<Downstream, DownstreamGuard> guards = new EnumMap<>(Downstream.class);
+
+
+
+    public DownstreamResilienceRegistry(AppConfig appConfig, MeterRegistry meterRegistry) {
+        this.appConfig = appConfig;
+        register(Downstream.KYC, appConfig.getResilienceBulkheadMaxConcurrentKyc(), meterRegistry);
+        register(Downstream.TRANSACTIONS, appConfig.getResilienceBulkheadMaxConcurrentTransactions(), meterRegistry);
+        register(Downstream.SCORING, appConfig.getResilienceBulkheadMaxConcurrentScoring(), meterRegistry);
+    }
+
+
+
+    public Downstream resolve(String url) {
+        if (url == null) return Downstream.OTHER;
+        if (matches(url, appConfig.getCbsKycUrl())) return Downstream.KYC;
+        if (matches(url, appConfig.getCbsTransactionUrl())) return Downstream.TRANSACTIONS;
+        if (matches(url, appConfig.getScoringBaseUrl())) return Downstream.SCORING;
+        return Downstream.OTHER;
+    }
+
+
+
+    // Plain reads are always safe to repeat; POSTs only for downstreams whose POSTs are lookups (the CBS SOAP queries)
+    public boolean isRetryable(Downstream downstream, HttpMethod httpMethod) {
+        if (httpMethod == null || httpMethod == HttpMethod.POST) {
+            return appConfig.getResilienceRetryPostDownstreams().contains(downstream);
+        }
+        return httpMethod == HttpMethod.GET || httpMethod == HttpMethod.HEAD || httpMethod == HttpMethod.OPTIONS;
+    }
+
+
+
+    public Optional<DownstreamGuard> guardFor(Downstream downstream) {
+        return Optional.ofNullable(guards.get(downstream));
+    }
+
+
+
+    public Map<Downstream, DownstreamGuard> getGuards() {
+        return Collections.unmodifiableMap(guards);
+    }
+
+
+
+    private void register(Downstream downstream, int maxConcurrentCalls, MeterRegistry meterRegistry) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(downstream.name(),
+                appConfig.getResilienceCircuitFailureRateThreshold(),
+                appConfig.getResilienceCircuitSlidingWindowSize(),
+                appConfig.getResilienceCircuitMinimumCalls(),
+                appConfig.getResilienceCircuitOpenDurationMillis(),
+                appConfig.getResilienceCircuitHalfOpenPermittedCalls());
+        Bulkhead bulkhead = new Bulkhead(maxConcurrentCalls);
+        RetryBudget retryBudget = new RetryBudget(appConfig.getResilienceRetryBudgetPercent(), appConfig.getResilienceRetryBudgetMaxTokens());
+        guards.put(downstream, DownstreamGuard.builder()
+                .downstream(downstream)
+                .circuitBreaker(circuitBreaker)
+                .bulkhead(bulkhead)
+                .bulkheadMaxWaitMillis(appConfig.getResilienceBulkheadMaxWaitMillis())
+                .retryBudget(retryBudget)
+                .maxRetries(appConfig.getResilienceRetryMaxRetries())
+                .retryBaseDelayMillis(appConfig.getResilienceRetryBaseDelayMillis())
+                .retryMaxDelayMillis(appConfig.getResilienceRetryMaxDelayMillis())
+                .build());
+
+        String tag = downstream.name().toLowerCase();
+        Gauge.builder("lender.http.client.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Circuit breaker state (0 closed, 1 open, 2 half-open)")
+                .tag("downstream", tag)
+                .register(meterRegistry);
+        Gauge.builder("lender.http.client.bulkhead.available", bulkhead, Bulkhead::getAvailable)
+                .description("Concurrent call permits left in the bulkhead")
+                .tag("downstream", tag)
+                .register(meterRegistry);
+        Gauge.builder("lender.http.client.retry.budget.available", retryBudget, RetryBudget::getAvailableRetries)
+                .description("Retries the downstream's retry budget currently allows")
+                .tag("downstream", tag)
+                .register(meterRegistry);
+        log.info("Downstream guard registered | downstream: {}, max concurrent calls: {}", downstream, bulkhead.getMaxConcurrentCalls());
+    }
+
+
+
+    private boolean matches(String url, String baseUrl) {
+        return baseUrl != null && !baseUrl.isBlank() && url.startsWith(baseUrl);
+    }
+}
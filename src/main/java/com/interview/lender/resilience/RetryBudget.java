@@ -0,0 +1,45 @@
+package com.interview.lender.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket: each first attempt deposits a fraction of a token and each retry spends a whole one,
+// so retries stay within the configured percentage of regular traffic once the initial reserve is used up
+public class RetryBudget {
+    private static final long TOKEN = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+
+
+    public RetryBudget(int retryPercent, int maxTokens) {
+        this.depositPerRequest = TOKEN * Math.clamp(retryPercent, 0, 100) / 100;
+        this.maxBalance = TOKEN * Math.max(1, maxTokens);
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+
+
+    public void onRequest() {
+        balance.accumulateAndGet(depositPerRequest, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+
+
+    public boolean tryAcquireRetry() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) return false;
+        } while (!balance.compareAndSet(current, current - TOKEN));
+
+        return true;
+    }
+
+
+
+    public double getAvailableRetries() {
+        return (double) balance.get() / TOKEN;
+    }
+}
@@ -0,0 +1,114 @@
+package com.interview.lender.resilience;
+
+import com.interview.lender.exception.DeadlineExceededException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Coalesces concurrent calls for the same key: the first caller runs the call, everyone arriving
+// while it is outstanding gets the same result. Nothing is kept once the call completes.
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+
+
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        executed.increment();
+        try {
+            V value = call.get();
+            land(key, flight, value, null);
+            return value;
+        } catch (RuntimeException | Error e) {
+            land(key, flight, null, e);
+            throw e;
+        }
+    }
+
+
+
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.copy();
+        }
+
+        executed.increment();
+        try {
+            call.get().whenComplete((value, e) -> land(key, flight, value, e));
+        } catch (RuntimeException e) {
+            land(key, flight, null, e);
+        }
+        return flight.copy();
+    }
+
+
+
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+
+
+    // Unregister before completing, so a caller arriving after the result is out starts a fresh call
+    private void land(K key, CompletableFuture<V> flight, V value, Throwable e) {
+        inFlight.remove(key, flight);
+        if (e != null) flight.completeExceptionally(e);
+        else flight.complete(value);
+    }
+
+
+
+    // A joining caller still honours its own deadline, which may be shorter than the one the call runs under
+    private V await(CompletableFuture<V> flight) {
+        try {
+            Deadline deadline = Deadline.current().orElse(null);
+            return deadline == null ? flight.join() : flight.get(Math.max(0, deadline.remainingMillis()), TimeUnit.MILLISECONDS);
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Request deadline passed while waiting on a shared call");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException("Interrupted while waiting on a shared call");
+        }
+    }
+
+
+
+    private RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) return runtimeException;
+        if (cause instanceof Error error) throw error;
+        return new CompletionException(cause);
+    }
+}
@@ -2,22 +2,125 @@ package com.interview.lender.scheduler;
 
 import com.interview.lender.config.AppConfig;
 import com.interview.lender.services.LoanService;
+import com.interview.lender.services.ScoringOutboxDispatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class JobScheduler {
+    private static final double LATENCY_SMOOTHING = 0.3;
+
     private final AppConfig appConfig;
     private final LoanService loanService;
+    private final ScoringOutboxDispatcher scoringOutboxDispatcher;
+    private final TaskScheduler taskScheduler;
+    private final AtomicBoolean scoringRunning = new AtomicBoolean();
+    private final AtomicBoolean scoringRequested = new AtomicBoolean();
+    private volatile int pageSize;
+    private volatile double averageLoanMillis;
 
 
 
-    @Scheduled(fixedDelay = 60000)
+    @Scheduled(fixedDelayString = "#{@appConfig.scoringSchedulerTickMillis}")
     public void processLoanScoring() {
-        loanService.processLoanScoring();
+        // A caller that finds a pass already running leaves a request behind, and the running pass goes round once more
+        scoringRequested.set(true);
+        while (scoringRequested.get() && scoringRunning.compareAndSet(false, true)) {
+            try {
+                scoringRequested.set(false);
+                runScoringPass();
+            } finally {
+                scoringRunning.set(false);
+            }
+        }
+    }
+
+
+
+    public void wakeUp() {
+        // Only leaves a request and hands the drain to the scheduler, so the caller's thread never runs a pass;
+        // a request that is already pending will be picked up by the running pass or the drain already submitted
+        if (!scoringRequested.getAndSet(true)) {
+            taskScheduler.schedule(this::processLoanScoring, Instant.now());
+        }
+    }
+
+
+
+    @Scheduled(fixedDelayString = "#{@appConfig.scoringOutboxDispatchMillis}")
+    public void dispatchScoringOutbox() {
+        int batchSize = appConfig.getScoringOutboxBatchSize();
+        int dispatched;
+        do {
+            dispatched = scoringOutboxDispatcher.dispatchDueEntries();
+        } while (dispatched > 0 && dispatched >= batchSize);
+    }
+
+
+
+    private void runScoringPass() {
+        if (!appConfig.isScoringDrainEnabled()) {
+            loanService.processLoanScoring(appConfig.getScoringPageSizeMax());
+            return;
+        }
+
+        drainScoringBacklog();
+    }
+
+
+
+    public int getPageSize() {
+        return pageSize > 0 ? pageSize : appConfig.getScoringPageSizeMin();
+    }
+
+
+
+    private void drainScoringBacklog() {
+        long drainStart = System.nanoTime();
+        long maxDrainNanos = TimeUnit.MILLISECONDS.toNanos(appConfig.getScoringMaxDrainMillis());
+        int pages = 0;
+        int totalProcessed = 0;
+
+        while (true) {
+            int requested = getPageSize();
+            long pageStart = System.nanoTime();
+            int processed = loanService.processLoanScoring(requested);
+            if (processed == 0) break;
+
+            pages++;
+            totalProcessed += processed;
+            adjustPageSize(processed, System.nanoTime() - pageStart);
+
+            if (processed < requested) break;
+            if (System.nanoTime() - drainStart >= maxDrainNanos) {
+                log.warn("Scoring drain reached max duration, yielding until next tick | pages: {}, loans: {}", pages, totalProcessed);
+                break;
+            }
+        }
+
+        if (totalProcessed > 0) {
+            log.info("Scoring drain finished | pages: {}, loans: {}, next page size: {}", pages, totalProcessed, getPageSize());
+        }
+    }
+
+
+
+    private void adjustPageSize(int processed, long elapsedNanos) {
+        double loanMillis = TimeUnit.NANOSECONDS.toMicros(elapsedNanos) / 1000.0 / processed;
+        averageLoanMillis = averageLoanMillis == 0
+                ? loanMillis
+                : LATENCY_SMOOTHING * loanMillis + (1 - LATENCY_SMOOTHING) * averageLoanMillis;
+
+        long target = (long) (appConfig.getScoringTargetPageMillis() / Math.max(averageLoanMillis, 0.001));
+        pageSize = (int) Math.clamp(target, appConfig.getScoringPageSizeMin(), appConfig.getScoringPageSizeMax());
     }
-}
\ No newline at end of file
+}
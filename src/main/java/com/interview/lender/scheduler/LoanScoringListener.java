@@ -0,0 +1,85 @@
+package com.interview.lender.scheduler;
+
+import com.interview.lender.config.AppConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "scoring.listener.enabled", havingValue = "true")
+public class LoanScoringListener {
+    public static final String LOAN_SCORING_CHANNEL = "loan_scoring";
+
+    private final DataSource dataSource;
+    private final JobScheduler jobScheduler;
+    private final AppConfig appConfig;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofVirtual().name("loan-scoring-listener").start(this::listen);
+    }
+
+
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + LOAN_SCORING_CHANNEL);
+                }
+                log.info("Listening for loan scoring notifications | Channel: {}", LOAN_SCORING_CHANNEL);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(appConfig.getScoringListenerPollMillis());
+                    if (notifications != null && notifications.length > 0) {
+                        log.debug("Received {} loan scoring notifications", notifications.length);
+                        jobScheduler.wakeUp();
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) return;
+                log.error("Loan scoring listener failed, polling remains active | Error: {}", e.getMessage());
+                pauseBeforeReconnect();
+            }
+        }
+    }
+
+
+
+    private void pauseBeforeReconnect() {
+        try {
+            Thread.sleep(appConfig.getScoringListenerReconnectMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.interview.lender.services;
+
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.util.SoapEnvelopeTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import static com.interview.lender.util.Constants.KYC_REQUEST_TEMPLATE;
+import static com.interview.lender.util.Constants.TRANSACTIONS_REQUEST_TEMPLATE;
+
+@Component
+public class CbsSoapRequests {
+
+    private static final SoapEnvelopeTemplate KYC_ENVELOPE = SoapEnvelopeTemplate.compile(KYC_REQUEST_TEMPLATE);
+    private static final SoapEnvelopeTemplate TRANSACTIONS_ENVELOPE = SoapEnvelopeTemplate.compile(TRANSACTIONS_REQUEST_TEMPLATE);
+
+    private final SoapEnvelopeTemplate kycTemplate;
+    private final SoapEnvelopeTemplate transactionsTemplate;
+
+
+
+    // Credentials are fixed for the life of the context, so they are escaped and encoded into each template once
+    public CbsSoapRequests(AppConfig appConfig) {
+        this.kycTemplate = KYC_ENVELOPE.bind(appConfig.getCbsUsername(), appConfig.getCbsPassword());
+        this.transactionsTemplate = TRANSACTIONS_ENVELOPE.bind(appConfig.getCbsUsername(), appConfig.getCbsPassword());
+    }
+
+
+
+    public byte[] kycRequest(String customerNumber) {
+        return kycTemplate.render(customerNumber);
+    }
+
+
+
+    public byte[] transactionsRequest(String customerNumber) {
+        return transactionsTemplate.render(customerNumber);
+    }
+
+
+
+    public HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_XML);
+        headers.set("SOAPAction", "");
+        headers.set("Accept", "text/xml, application/xml");
+        return headers;
+    }
+}
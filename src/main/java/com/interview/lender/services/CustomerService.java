@@ -1,22 +1,17 @@
 package com.interview.lender.services;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.interview.lender.config.AppConfig;
 import com.interview.lender.dto.CustomerDto;
 import com.interview.lender.dto.CustomerSoapResponse;
 import com.interview.lender.dto.HttpResultDto;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
-
-import static com.interview.lender.util.Constants.KYC_REQUEST_TEMPLATE;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -24,31 +19,42 @@ import static com.interview.lender.util.Constants.KYC_REQUEST_TEMPLATE;
 public class CustomerService {
 
     private final AppConfig appConfig;
-    private final XmlMapper xmlMapper = new XmlMapper();
     private final RestClientService restClientService;
+    private final ObjectReaderRegistry objectReaderRegistry;
+    private final Cache<String, Optional<CustomerDto>> kycCustomerCache;
+    private final CbsSoapRequests cbsSoapRequests;
+
 
 
+    public Optional<CustomerDto> getCustomerByNumber(String customerNumber) {
+        Optional<CustomerDto> cached = kycCustomerCache.getIfPresent(customerNumber);
+        if (cached != null) return cached;
+
+        HttpResultDto result = restClientService.sendRequest(appConfig.getCbsKycUrl(), null, cbsSoapRequests.headers(), cbsSoapRequests.kycRequest(customerNumber), String.class);
 
-    @PostConstruct
-    public void initXmlMapper() {
-        xmlMapper.registerModule(new JavaTimeModule());
+        return toCustomer(result, customerNumber);
     }
 
 
 
-    public Optional<CustomerDto> getCustomerByNumber(String customerNumber) {
-        String soapRequest = buildSoapRequest(customerNumber);
-        String url = appConfig.getCbsKycUrl();
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.TEXT_XML);
-        headers.set("SOAPAction", "");
-        headers.set("Accept", "text/xml, application/xml");
-        HttpResultDto result = restClientService.sendRequest(url, null, headers, soapRequest, String.class);
+    public CompletableFuture<Optional<CustomerDto>> getCustomerByNumberAsync(String customerNumber) {
+        Optional<CustomerDto> cached = kycCustomerCache.getIfPresent(customerNumber);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+
+        return restClientService.sendRequestAsync(appConfig.getCbsKycUrl(), null, cbsSoapRequests.headers(), cbsSoapRequests.kycRequest(customerNumber), String.class)
+                .thenApply(result -> toCustomer(result, customerNumber));
+    }
 
+
+
+    private Optional<CustomerDto> toCustomer(HttpResultDto result, String customerNumber) {
         if (result.isSuccess()) {
             try {
-                CustomerSoapResponse customerSoapResponse = xmlMapper.readValue(result.getMessage().toString(), CustomerSoapResponse.class);
-                return customerSoapResponse.getCustomer();
+                CustomerSoapResponse customerSoapResponse = objectReaderRegistry.customerSoapResponse().readValue(result.getMessage().toString());
+                Optional<CustomerDto> customer = customerSoapResponse.getCustomer();
+                // Only answers CBS actually gave are cached; failed or unreadable lookups go back to CBS next time
+                kycCustomerCache.put(customerNumber, customer);
+                return customer;
             } catch (JsonProcessingException e) {
                 log.error("Failed to parse XML to DTO | CustomerNumber: {}", customerNumber, e);
                 return Optional.empty();
@@ -57,13 +63,4 @@ public class CustomerService {
 
         return Optional.empty();
     }
-
-
-
-    private String buildSoapRequest(String customerNumber) {
-        String username = appConfig.getCbsUsername();
-        String password = appConfig.getCbsPassword();
-
-        return String.format(KYC_REQUEST_TEMPLATE, username, password, customerNumber);
-    }
-}
\ No newline at end of file
+}
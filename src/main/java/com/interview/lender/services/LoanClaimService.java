@@ -0,0 +1,67 @@
+package com.interview.lender.services;
+
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.entity.Loan;
+import com.interview.lender.repository.LoanRepository;
+import com.interview.lender.util.Util;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanClaimService {
+
+    private final LoanRepository loanRepository;
+    private final AppConfig appConfig;
+
+
+
+    @Transactional
+    public List<Loan> claimLoansForScoring(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Loan> loans = loanRepository.findLoansForScoring(appConfig.getScoringRetryMaxAttempts(), now, PageRequest.of(0, limit));
+        if (loans.isEmpty()) return loans;
+
+        String nodeId = appConfig.getScoringNodeId();
+        LocalDateTime leaseUntil = now.plusSeconds(appConfig.getScoringLeaseSeconds());
+        loans.forEach(loan -> {
+            loan.setClaimedBy(nodeId);
+            loan.setLeaseUntil(leaseUntil);
+        });
+
+        log.info("Claimed {} loans for scoring | Node: {}, lease until: {}", loans.size(), nodeId, leaseUntil);
+        return loanRepository.saveAll(loans);
+    }
+
+
+
+    // A failed score query releases the lease and counts toward the retry limit just like a score that is not ready yet;
+    // a query our own concurrency limiter turned away was never sent, so it is only rescheduled
+    @Transactional
+    public void recordScoringOutcomes(List<Loan> scoredLoans, List<Long> notReadyLoanIds, List<Long> failedLoanIds, List<Long> deferredLoanIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> retryLoanIds = Stream.concat(notReadyLoanIds.stream(), failedLoanIds.stream()).toList();
+
+        int scored = loanRepository.batchUpdateScoringOutcomes(scoredLoans, now);
+        int retried = loanRepository.bumpScoringRetries(retryLoanIds,
+                appConfig.getScoringRetryMaxAttempts(),
+                appConfig.getScoringRetryDelaySeconds() * 1000L,
+                appConfig.getScoringRetryMaxDelaySeconds() * 1000L,
+                now);
+        int deferred = loanRepository.deferScoring(deferredLoanIds,
+                now.plus(Util.backoffWithJitter(appConfig.getScoringRetryDelaySeconds() * 1000L, 1, appConfig.getScoringRetryMaxDelaySeconds() * 1000L)),
+                now);
+
+        log.info("Recorded scoring outcomes | scored: {}/{}, retried: {}/{} (not ready: {}, failed: {}), deferred: {}/{}",
+                scored, scoredLoans.size(), retried, retryLoanIds.size(), notReadyLoanIds.size(), failedLoanIds.size(),
+                deferred, deferredLoanIds.size());
+    }
+}
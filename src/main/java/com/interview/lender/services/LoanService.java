@@ -4,21 +4,28 @@ import com.interview.lender.config.AppConfig;
 import com.interview.lender.dto.*;
 import com.interview.lender.entity.Customer;
 import com.interview.lender.entity.Loan;
+import com.interview.lender.entity.ScoringOutbox;
 import com.interview.lender.enums.LoanStatus;
+import com.interview.lender.enums.OutboxStatus;
+import com.interview.lender.exception.ConcurrencyLimitExceededException;
 import com.interview.lender.repository.CustomerRepository;
 import com.interview.lender.repository.LoanRepository;
+import com.interview.lender.repository.ScoringOutboxRepository;
 import com.interview.lender.util.Util;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.springframework.http.HttpStatus.*;
 
@@ -32,6 +39,9 @@ public class LoanService {
     private final CustomerRepository customerRepository;
     private final CustomerService customerService;
     private final ScoringService scoringService;
+    private final ScoringWorkerPool scoringWorkerPool;
+    private final LoanClaimService loanClaimService;
+    private final ScoringOutboxRepository scoringOutboxRepository;
     private final AppConfig appConfig;
 
 
@@ -100,14 +110,10 @@ public class LoanService {
             return Util.buildErrorResponse("You have an ongoing loan request.", BAD_REQUEST);
         }
 
-        Customer customer = optionalCustomer.get();
         Loan loan = saveLoanRequest(request);
+        saveScoringOutboxEntry(loan);
 
-        String scoringToken = scoringService.initiateScoring(request.getCustomerNumber());
-        updateLoanStatus(loan);
-        updateCustomerScoringToken(customer, scoringToken);
-
-        log.info("Loan application created | Loan ID: {}, scoring token: {}", loan.getId(), scoringToken);
+        log.info("Loan application created, scoring queued | Loan ID: {}", loan.getId());
         var response = LoanResponse.builder()
                 .loanId(loan.getId())
                 .customerNumber(loan.getCustomerNumber())
@@ -131,8 +137,44 @@ public class LoanService {
             return Util.buildErrorResponse("No loan found.", NOT_FOUND);
         }
 
-        Loan loan = loans.getLast();
-        var response = LoanStatusResponse.builder()
+        return Util.buildSuccessResponse("Loan status retrieved successfully", buildLoanStatusResponse(loans.getLast()), OK);
+    }
+
+
+
+    // Runs outside a transaction so the loaded loan is never flushed; the write is the same status-guarded UPDATE the poller uses
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseDto applyScoringCallback(String scoringToken, ScoringResponse scoringResponse) {
+        log.info("Processing scoring callback | token: {}, score: {}", scoringToken, scoringResponse.getScore());
+
+        Optional<Customer> optionalCustomer = customerRepository.findByScoringToken(scoringToken);
+        if (optionalCustomer.isEmpty()) {
+            log.warn("No customer found for scoring token | token: {}", scoringToken);
+            return Util.buildErrorResponse("Unknown scoring token.", NOT_FOUND);
+        }
+
+        Optional<Loan> optionalLoan = loanRepository.findOngoingLoanByCustomerNumber(optionalCustomer.get().getCustomerNumber())
+                .filter(loan -> loan.getStatus() == LoanStatus.SCORING_IN_PROGRESS);
+        if (optionalLoan.isEmpty()) {
+            log.warn("No loan awaiting scoring for token | token: {}", scoringToken);
+            return Util.buildErrorResponse("No loan is awaiting scoring for this token.", CONFLICT);
+        }
+
+        Loan loan = optionalLoan.get();
+        applyScoringResult(loan, scoringResponse);
+        if (loanRepository.batchUpdateScoringOutcomes(List.of(loan), LocalDateTime.now()) == 0) {
+            log.warn("Loan was resolved while applying scoring callback | loan ID: {}, token: {}", loan.getId(), scoringToken);
+            return Util.buildErrorResponse("Loan scoring was already completed.", CONFLICT);
+        }
+        log.info("Scoring callback applied | loan ID: {}, status: {}", loan.getId(), loan.getStatus());
+
+        return Util.buildSuccessResponse("Scoring result applied successfully", buildLoanStatusResponse(loan), OK);
+    }
+
+
+
+    private LoanStatusResponse buildLoanStatusResponse(Loan loan) {
+        return LoanStatusResponse.builder()
                 .loanId(loan.getId())
                 .customerNumber(loan.getCustomerNumber())
                 .requestedAmount(loan.getRequestedAmount())
@@ -145,48 +187,60 @@ public class LoanService {
                 .applicationDate(loan.getApplicationDate())
                 .approvalDate(loan.getApprovalDate())
                 .build();
-
-        return Util.buildSuccessResponse("Loan status retrieved successfully", response, OK);
     }
 
 
 
-    public void processLoanScoring() {
-        int maxRetries = appConfig.getScoringRetryMaxAttempts();
-        Pageable pageable = PageRequest.of(0, 100);
-        List<Loan> loansInProgress = loanRepository.findLoansForScoring(maxRetries, pageable);
-        List<String> customerNumbers = loansInProgress.stream().map(Loan::getCustomerNumber).distinct().toList();
-        //TODO: Update the status of fetched records to a temporary value to avoid duplicate processing before processIndividualLoanScoring finishes
-        List<Customer> customers = customerRepository.findByCustomerNumberIn(customerNumbers);
-
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int processLoanScoring(int pageSize) {
+        List<Loan> loansInProgress = loanClaimService.claimLoansForScoring(pageSize);
         log.info("Found {} loans to process for scoring...", loansInProgress.size());
+        if (loansInProgress.isEmpty()) return 0;
 
-        for (Loan loan : loansInProgress) {
-            customers.stream().
-                    filter(c -> Objects.equals(c.getCustomerNumber(), loan.getCustomerNumber())).
-                    findFirst()
-                    .ifPresent(customer -> processIndividualLoanScoring(loan, customer));
-        }
+        List<String> customerNumbers = loansInProgress.stream().map(Loan::getCustomerNumber).distinct().toList();
+        Map<String, Customer> customers = customerRepository.findByCustomerNumberIn(customerNumbers).stream()
+                .collect(Collectors.toMap(Customer::getCustomerNumber, Function.identity(), (first, second) -> first));
+
+        Queue<Loan> scoredLoans = new ConcurrentLinkedQueue<>();
+        Queue<Long> notReadyLoanIds = new ConcurrentLinkedQueue<>();
+        Queue<Long> failedLoanIds = new ConcurrentLinkedQueue<>();
+        Queue<Long> deferredLoanIds = new ConcurrentLinkedQueue<>();
+        scoringWorkerPool.processAll(loansInProgress, loan -> {
+            Customer customer = customers.get(loan.getCustomerNumber());
+            if (customer != null) processIndividualLoanScoring(loan, customer, scoredLoans, notReadyLoanIds, failedLoanIds, deferredLoanIds);
+        });
+
+        loanClaimService.recordScoringOutcomes(List.copyOf(scoredLoans), List.copyOf(notReadyLoanIds), List.copyOf(failedLoanIds), List.copyOf(deferredLoanIds));
+        return loansInProgress.size();
     }
 
 
 
-    private void processIndividualLoanScoring(Loan loan, Customer customer) {
+    // Every claimed loan must land in one of the queues, otherwise it keeps its lease and never counts toward the retry limit
+    private void processIndividualLoanScoring(Loan loan, Customer customer, Queue<Loan> scoredLoans, Queue<Long> notReadyLoanIds,
+                                              Queue<Long> failedLoanIds, Queue<Long> deferredLoanIds) {
         log.info("Processing scoring | loan ID: {}, token: {}", loan.getId(), customer.getScoringToken());
 
-        Optional<ScoringResponse> scoringResponseOpt = scoringService.getScore(customer.getScoringToken());
+        Optional<ScoringResponse> scoringResponseOpt;
+        try {
+            scoringResponseOpt = scoringService.getScore(customer.getScoringToken());
+        } catch (ConcurrencyLimitExceededException e) {
+            deferredLoanIds.add(loan.getId());
+            log.info("Scoring deferred by concurrency limit | loan ID: {}", loan.getId());
+            return;
+        } catch (RuntimeException e) {
+            failedLoanIds.add(loan.getId());
+            log.error("Scoring query failed | loan ID: {}, retry count: {}, error: {}", loan.getId(), loan.getRetryCount(), e.getMessage());
+            return;
+        }
 
         if (scoringResponseOpt.isPresent()) {
-            updateLoanWithScoringResult(loan, scoringResponseOpt.get());
+            applyScoringResult(loan, scoringResponseOpt.get());
+            scoredLoans.add(loan);
             log.info("Scoring completed | loan ID: {}, score: {}", loan.getId(), scoringResponseOpt.get().getScore());
         } else {
-            loan.setRetryCount(loan.getRetryCount() + 1);
-            if (loan.getRetryCount() >= appConfig.getScoringRetryMaxAttempts()) {
-                loan.setStatus(LoanStatus.FAILED);
-                log.warn("Scoring failed | loan ID: {} after {} retries", loan.getId(), loan.getRetryCount());
-            }
+            notReadyLoanIds.add(loan.getId());
             log.info("Scoring not ready | loan ID: {}, retry count: {}", loan.getId(), loan.getRetryCount());
-            loanRepository.save(loan);
         }
     }
 
@@ -199,26 +253,27 @@ public class LoanService {
         loan.setStatus(LoanStatus.PENDING);
         loan.setApplicationDate(LocalDateTime.now());
         loan.setRetryCount(0);
+        loan.setNextAttemptAt(loan.getApplicationDate());
         return loanRepository.save(loan);
     }
 
 
 
-    private void updateLoanStatus(Loan loan) {
-        loan.setStatus(LoanStatus.SCORING_IN_PROGRESS);
-        loanRepository.save(loan);
-    }
-
-
+    private void saveScoringOutboxEntry(Loan loan) {
+        ScoringOutbox entry = ScoringOutbox.builder()
+                .loanId(loan.getId())
+                .customerNumber(loan.getCustomerNumber())
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(loan.getApplicationDate())
+                .build();
 
-    private void updateCustomerScoringToken(Customer customer, String scoringToken) {
-        customer.setScoringToken(scoringToken);
-        customerRepository.save(customer);
+        scoringOutboxRepository.save(entry);
     }
 
 
 
-    private void updateLoanWithScoringResult(Loan loan, ScoringResponse scoringResponse) {
+    private void applyScoringResult(Loan loan, ScoringResponse scoringResponse) {
         loan.setCreditScore(scoringResponse.getScore());
         loan.setCreditLimit(scoringResponse.getLimitAmount());
         loan.setExclusion(scoringResponse.getExclusion());
@@ -236,6 +291,13 @@ public class LoanService {
             loan.setStatus(LoanStatus.REJECTED);
         }
 
-        loanRepository.save(loan);
+        releaseLease(loan);
+    }
+
+
+
+    private void releaseLease(Loan loan) {
+        loan.setClaimedBy(null);
+        loan.setLeaseUntil(null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.interview.lender.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.interview.lender.dto.CustomerSoapResponse;
+import com.interview.lender.dto.ScoringResponse;
+import com.interview.lender.dto.TransactionDto;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.interview.lender.util.Constants.MOCK_TRANSACTIONS_RESPONSE;
+
+// One place for Jackson binding, so deserializer caches are shared and built before the first request needs them
+@Component
+@Slf4j
+public class ObjectReaderRegistry {
+
+    private static final String CUSTOMER_SOAP_SAMPLE = """
+            <Envelope><Body><CustomerResponse><customer>
+                <customerNumber>0</customerNumber><createdAt>2025-01-01T00:00:00.000Z</createdAt><monthlyIncome>0</monthlyIncome>
+            </customer></CustomerResponse></Body></Envelope>
+            """;
+    private static final String TRANSACTION_SAMPLE = "<transactions><accountNumber>0</accountNumber><monthlyBalance>0</monthlyBalance></transactions>";
+    private static final String SCORING_RESPONSE_SAMPLE = "{\"id\":0,\"customerNumber\":\"0\",\"score\":0,\"limitAmount\":0,\"exclusion\":\"No Exclusion\"}";
+
+    private final ObjectMapper objectMapper;
+    private final XmlMapper xmlMapper;
+    private final ObjectReader customerSoapResponseReader;
+    private final ObjectReader transactionReader;
+    private final ObjectReader transactionListReader;
+    private final Map<Class<?>, ObjectReader> jsonReaders = new ConcurrentHashMap<>();
+
+
+
+    public ObjectReaderRegistry(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.xmlMapper = XmlMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(new BlackbirdModule())
+                .build();
+
+        this.customerSoapResponseReader = xmlMapper.readerFor(CustomerSoapResponse.class);
+        this.transactionReader = xmlMapper.readerFor(TransactionDto.class);
+        this.transactionListReader = objectMapper.readerFor(new TypeReference<List<TransactionDto>>() {});
+    }
+
+
+
+    @PostConstruct
+    public void warmUp() {
+        long start = System.nanoTime();
+        try {
+            customerSoapResponseReader.readValue(CUSTOMER_SOAP_SAMPLE);
+            transactionReader.readValue(TRANSACTION_SAMPLE);
+            transactionListReader.readValue(MOCK_TRANSACTIONS_RESPONSE);
+            json(ScoringResponse.class).readValue(SCORING_RESPONSE_SAMPLE);
+            log.info("Object readers warmed up in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            log.warn("Object reader warm-up failed, readers will initialise on first use", e);
+        }
+    }
+
+
+
+    public ObjectReader customerSoapResponse() {
+        return customerSoapResponseReader;
+    }
+
+
+
+    public ObjectReader transactionList() {
+        return transactionListReader;
+    }
+
+
+
+    // Binds the element the cursor is on and leaves the cursor at its end tag; the caller owns the stream
+    public TransactionDto readTransaction(XMLStreamReader reader) throws IOException {
+        return transactionReader.readValue(xmlMapper.getFactory().createParser(reader));
+    }
+
+
+
+    public ObjectReader json(Class<?> type) {
+        return jsonReaders.computeIfAbsent(type, objectMapper::readerFor);
+    }
+}
@@ -1,24 +1,130 @@
 package com.interview.lender.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.lender.config.AppConfig;
 import com.interview.lender.dto.HttpResultDto;
+import com.interview.lender.enums.Downstream;
+import com.interview.lender.exception.DeadlineExceededException;
+import com.interview.lender.resilience.Deadline;
+import com.interview.lender.resilience.DownstreamResilienceRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class RestClientService {
+    // Headers the JDK client manages itself and rejects when set explicitly
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+    private static final int NO_RESPONSE = -1;
+
     private final RestTemplate restTemplate;
+    private final HttpClient asyncHttpClient;
+    private final ObjectMapper objectMapper;
+    private final AppConfig appConfig;
+    private final DownstreamResilienceRegistry downstreamResilienceRegistry;
+    private final MeterRegistry meterRegistry;
+    private final ObjectReaderRegistry objectReaderRegistry;
 
 
 
     public HttpResultDto sendRequest(String url, HttpMethod httpMethod, HttpHeaders headers, Object requestPayload, Class<?> responseClass) {
+        return guarded(url, httpMethod, downstream -> doSendRequest(downstream, url, httpMethod, headers, requestPayload, responseClass));
+    }
+
+
+
+    public CompletableFuture<HttpResultDto> sendRequestAsync(String url, HttpMethod httpMethod, HttpHeaders headers, Object requestPayload, Class<?> responseClass) {
+        return guardedAsync(url, httpMethod, downstream -> doSendRequestAsync(downstream, url, httpMethod, headers, requestPayload, bodyReaderFor(responseClass)));
+    }
+
+
+
+    // Hands the open response stream to the reader instead of buffering the whole body first; error bodies are still read as text
+    public HttpResultDto sendRequestStreaming(String url, HttpMethod httpMethod, HttpHeaders headers, Object requestPayload, BodyReader<?> bodyReader) {
+        return guarded(url, httpMethod, downstream -> doSendRequestStreaming(downstream, url, httpMethod, headers, requestPayload, bodyReader));
+    }
+
+
+
+    public CompletableFuture<HttpResultDto> sendRequestStreamingAsync(String url, HttpMethod httpMethod, HttpHeaders headers, Object requestPayload, BodyReader<?> bodyReader) {
+        return guardedAsync(url, httpMethod, downstream -> doSendRequestAsync(downstream, url, httpMethod, headers, requestPayload, bodyReader));
+    }
+
+
+
+    private HttpResultDto guarded(String url, HttpMethod httpMethod, Function<Downstream, HttpResultDto> call) {
+        Downstream downstream = downstreamResilienceRegistry.resolve(url);
+        if (isDeadlineExpired()) throw new DeadlineExceededException("Request deadline passed before calling " + downstream);
+
+        return downstreamResilienceRegistry.guardFor(downstream)
+                .map(guard -> guard.execute(() -> timed(() -> call.apply(downstream)), downstreamResilienceRegistry.isRetryable(downstream, httpMethod)))
+                .orElseGet(() -> timed(() -> call.apply(downstream)));
+    }
+
+
+
+    private CompletableFuture<HttpResultDto> guardedAsync(String url, HttpMethod httpMethod, Function<Downstream, CompletableFuture<HttpResultDto>> call) {
+        Downstream downstream = downstreamResilienceRegistry.resolve(url);
+        if (isDeadlineExpired()) {
+            return CompletableFuture.failedFuture(new DeadlineExceededException("Request deadline passed before calling " + downstream));
+        }
+
+        return downstreamResilienceRegistry.guardFor(downstream)
+                .map(guard -> guard.executeAsync(() -> timedAsync(() -> call.apply(downstream)), downstreamResilienceRegistry.isRetryable(downstream, httpMethod)))
+                .orElseGet(() -> timedAsync(() -> call.apply(downstream)));
+    }
+
+
+
+    // Stamped per attempt inside the guard, so retries, backoff sleeps and guard rejections never show up in it
+    private HttpResultDto timed(Supplier<HttpResultDto> attempt) {
+        long start = System.nanoTime();
+        HttpResultDto result = attempt.get();
+        result.setLatencyNanos(System.nanoTime() - start);
+        return result;
+    }
+
+
+
+    private CompletableFuture<HttpResultDto> timedAsync(Supplier<CompletableFuture<HttpResultDto>> attempt) {
+        long start = System.nanoTime();
+        return attempt.get().thenApply(result -> {
+            result.setLatencyNanos(System.nanoTime() - start);
+            return result;
+        });
+    }
+
+
+
+    private HttpResultDto doSendRequest(Downstream downstream, String url, HttpMethod httpMethod, HttpHeaders headers, Object requestPayload, Class<?> responseClass) {
+        long start = System.nanoTime();
         try {
             HttpEntity<?> requestEntity = new HttpEntity<>(requestPayload, headers);
             ResponseEntity<?> response = null;
@@ -28,6 +134,7 @@ public class RestClientService {
                 response = restTemplate.exchange(url, httpMethod, requestEntity, responseClass);
             }
 
+            recordRequest(downstream, httpMethod, response.getStatusCode().value(), start);
             return HttpResultDto.builder()
                     .headers(response.getHeaders())
                     .success(true)
@@ -35,14 +142,162 @@ public class RestClientService {
                     .message(response.getBody())
                     .build();
         } catch (HttpClientErrorException e) {
-            log.error("HttpClientErrorException occurred | Status: {} | Body: {}", e.getStatusCode(), e.getResponseBodyAsString());
+            return clientErrorResult(downstream, httpMethod, e, start);
+        } catch (RestClientException e) {
+            return restClientErrorResult(downstream, httpMethod, e, start);
+        }
+    }
+
+
+
+    private HttpResultDto doSendRequestStreaming(Downstream downstream, String url, HttpMethod httpMethod, HttpHeaders headers, Object requestPayload, BodyReader<?> bodyReader) {
+        long start = System.nanoTime();
+        try {
+            HttpResultDto result = restTemplate.execute(URI.create(url), httpMethod == null ? HttpMethod.POST : httpMethod,
+                    restTemplate.httpEntityCallback(new HttpEntity<>(requestPayload, headers)),
+                    response -> HttpResultDto.builder()
+                            .headers(response.getHeaders())
+                            .success(true)
+                            .statusCode(response.getStatusCode().value())
+                            .message(bodyReader.read(response.getBody()))
+                            .build());
+
+            recordRequest(downstream, httpMethod, result.getStatusCode(), start);
+            return result;
+        } catch (HttpClientErrorException e) {
+            return clientErrorResult(downstream, httpMethod, e, start);
+        } catch (RestClientException e) {
+            return restClientErrorResult(downstream, httpMethod, e, start);
+        }
+    }
+
+
+
+    private HttpResultDto clientErrorResult(Downstream downstream, HttpMethod httpMethod, HttpClientErrorException e, long start) {
+        log.error("HttpClientErrorException occurred | Status: {} | Body: {}", e.getStatusCode(), e.getResponseBodyAsString());
+        recordRequest(downstream, httpMethod, e.getStatusCode().value(), start);
+        recordError(downstream, e);
+
+        return HttpResultDto.builder()
+                .statusCode(e.getStatusCode().value())
+                .error(e.getResponseBodyAsString())
+                .build();
+    }
+
+
+
+    private HttpResultDto restClientErrorResult(Downstream downstream, HttpMethod httpMethod, RestClientException e, long start) {
+        log.error("RestClientException occurred: ", e);
+        recordRequest(downstream, httpMethod, e instanceof RestClientResponseException responseException
+                ? responseException.getStatusCode().value() : NO_RESPONSE, start);
+        recordError(downstream, e);
+
+        return HttpResultDto.builder()
+                .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                .error(e.getMessage())
+                .build();
+    }
+
 
+
+    private CompletableFuture<HttpResultDto> doSendRequestAsync(Downstream downstream, String url, HttpMethod httpMethod, HttpHeaders headers, Object requestPayload, BodyReader<?> bodyReader) {
+        long start = System.nanoTime();
+        HttpRequest request;
+        try {
+            request = buildRequest(url, httpMethod, headers, requestPayload);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.error("Failed to build async request | Url: {}", url, e);
+            return CompletableFuture.completedFuture(HttpResultDto.builder()
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .error(e.getMessage())
+                    .build());
+        }
+
+        // The future completes once headers arrive; the body is pulled off the socket as the reader consumes it
+        return asyncHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    recordRequest(downstream, httpMethod, response.statusCode(), start);
+                    return toHttpResult(downstream, response, bodyReader);
+                })
+                .exceptionally(e -> {
+                    log.error("Async request failed | Url: {}", url, e);
+                    recordRequest(downstream, httpMethod, NO_RESPONSE, start);
+                    recordError(downstream, e.getCause() != null ? e.getCause() : e);
+
+                    return HttpResultDto.builder()
+                            .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                            .error(e.getCause() != null ? e.getCause().getMessage() : e.getMessage())
+                            .build();
+                });
+    }
+
+
+
+    private HttpRequest buildRequest(String url, HttpMethod httpMethod, HttpHeaders headers, Object requestPayload) throws JsonProcessingException {
+        String method = httpMethod == null ? HttpMethod.POST.name() : httpMethod.name();
+        HttpRequest.BodyPublisher body;
+        if (requestPayload == null) body = HttpRequest.BodyPublishers.noBody();
+        else if (requestPayload instanceof byte[] bytes) body = HttpRequest.BodyPublishers.ofByteArray(bytes);
+        else body = HttpRequest.BodyPublishers.ofString(requestPayload instanceof String text ? text : objectMapper.writeValueAsString(requestPayload));
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(Deadline.capToCurrent(appConfig.getHttpClientReadTimeoutMillis())))
+                .method(method, body);
+
+        if (headers != null) {
+            headers.forEach((name, values) -> {
+                if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) values.forEach(value -> builder.header(name, value));
+            });
+        }
+        // Same defaults RestTemplate's message converters apply when the caller sets no content type
+        if (requestPayload != null && (headers == null || headers.getContentType() == null)) {
+            String contentType = requestPayload instanceof String ? MediaType.TEXT_PLAIN_VALUE
+                    : requestPayload instanceof byte[] ? MediaType.APPLICATION_OCTET_STREAM_VALUE : MediaType.APPLICATION_JSON_VALUE;
+            builder.header(HttpHeaders.CONTENT_TYPE, contentType);
+        }
+
+        return builder.build();
+    }
+
+
+
+    private HttpResultDto toHttpResult(Downstream downstream, HttpResponse<InputStream> response, BodyReader<?> bodyReader) {
+        int statusCode = response.statusCode();
+        HttpHeaders responseHeaders = new HttpHeaders();
+        response.headers().map().forEach(responseHeaders::addAll);
+
+        try (InputStream body = response.body()) {
+            if (HttpStatusCode.valueOf(statusCode).is2xxSuccessful()) {
+                return HttpResultDto.builder()
+                        .headers(responseHeaders)
+                        .success(true)
+                        .statusCode(statusCode)
+                        .message(bodyReader.read(body))
+                        .build();
+            }
+
+            String errorBody = readText(body);
+            if (HttpStatusCode.valueOf(statusCode).is4xxClientError()) {
+                log.error("Async client error occurred | Status: {} | Body: {}", statusCode, errorBody);
+                // Named after the exception RestTemplate throws for the same status, so both paths feed one error series
+                recordError(downstream, HttpClientErrorException.class.getSimpleName());
+
+                return HttpResultDto.builder()
+                        .headers(responseHeaders)
+                        .statusCode(statusCode)
+                        .error(errorBody)
+                        .build();
+            }
+
+            log.error("Async server error occurred | Status: {} | Body: {}", statusCode, errorBody);
+            recordError(downstream, HttpServerErrorException.class.getSimpleName());
             return HttpResultDto.builder()
-                    .statusCode(e.getStatusCode().value())
-                    .error(e.getResponseBodyAsString())
+                    .headers(responseHeaders)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .error(statusCode + " " + errorBody)
                     .build();
-        } catch (RestClientException e) {
-            log.error("RestClientException occurred: ", e);
+        } catch (IOException e) {
+            log.error("Failed to read async response body | Status: {}", statusCode, e);
 
             return HttpResultDto.builder()
                     .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -50,4 +305,78 @@ public class RestClientService {
                     .build();
         }
     }
+
+
+
+    private BodyReader<?> bodyReaderFor(Class<?> responseClass) {
+        return body -> {
+            String text = readText(body);
+            if (responseClass == String.class) return text;
+            if (text.isBlank()) return null;
+            return objectReaderRegistry.json(responseClass).readValue(text);
+        };
+    }
+
+
+
+    private String readText(InputStream body) throws IOException {
+        return body == null ? "" : new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+
+
+    private boolean isDeadlineExpired() {
+        return Deadline.current().map(Deadline::isExpired).orElse(false);
+    }
+
+
+
+    private void recordRequest(Downstream downstream, HttpMethod httpMethod, int statusCode, long startNanos) {
+        Timer.builder("lender.http.client.requests")
+                .description("Outbound HTTP calls to downstream services")
+                .tag("downstream", downstream.name().toLowerCase())
+                .tag("method", httpMethod == null ? HttpMethod.POST.name() : httpMethod.name())
+                .tag("status", statusCode == NO_RESPONSE ? "IO_ERROR" : String.valueOf(statusCode))
+                .tag("outcome", outcome(statusCode))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+
+
+    private void recordError(Downstream downstream, Throwable e) {
+        recordError(downstream, e.getClass().getSimpleName());
+    }
+
+
+
+    private void recordError(Downstream downstream, String exceptionName) {
+        Counter.builder("lender.http.client.errors")
+                .description("Outbound HTTP calls that ended in an exception")
+                .tag("downstream", downstream.name().toLowerCase())
+                .tag("exception", exceptionName)
+                .register(meterRegistry)
+                .increment();
+    }
+
+
+
+    private String outcome(int statusCode) {
+        return switch (statusCode / 100) {
+            case 1 -> "INFORMATIONAL";
+            case 2 -> "SUCCESS";
+            case 3 -> "REDIRECTION";
+            case 4 -> "CLIENT_ERROR";
+            case 5 -> "SERVER_ERROR";
+            default -> "UNKNOWN";
+        };
+    }
+
+
+
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
 }
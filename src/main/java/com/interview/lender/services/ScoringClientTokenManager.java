@@ -0,0 +1,130 @@
+package com.interview.lender.services;
+
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.dto.ClientRegistrationRequest;
+import com.interview.lender.dto.ClientRegistrationResponse;
+import com.interview.lender.dto.HttpResultDto;
+import com.interview.lender.exception.ExternalServiceException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScoringClientTokenManager {
+    private static final long FAILED_REFRESH_BACKOFF_SECONDS = 30;
+
+    private final AppConfig appConfig;
+    private final RestClientService restClientService;
+    private final AtomicReference<ClientToken> currentToken = new AtomicReference<>();
+    private final ReentrantLock registrationLock = new ReentrantLock();
+
+
+
+    @PostConstruct
+    public void init() {
+        registerClient();
+    }
+
+
+
+    public String getToken() {
+        ClientToken token = currentToken.get();
+        Instant now = Instant.now();
+        if (token != null && now.isBefore(token.refreshAt())) {
+            return token.value();
+        }
+
+        if (token != null && now.isBefore(token.expiresAt())) {
+            // Still valid: one caller refreshes ahead of expiry while everyone else keeps using the current token
+            if (registrationLock.tryLock()) {
+                try {
+                    if (currentToken.get() == token) refreshAhead(token);
+                } finally {
+                    registrationLock.unlock();
+                }
+            }
+            ClientToken latest = currentToken.get();
+            return latest != null ? latest.value() : token.value();
+        }
+
+        registrationLock.lock();
+        try {
+            ClientToken latest = currentToken.get();
+            if (latest != null && Instant.now().isBefore(latest.expiresAt())) {
+                return latest.value();
+            }
+            return registerClient();
+        } finally {
+            registrationLock.unlock();
+        }
+    }
+
+
+
+    public void invalidate(String rejectedToken) {
+        ClientToken token = currentToken.get();
+        if (token != null && token.value().equals(rejectedToken) && currentToken.compareAndSet(token, null)) {
+            log.warn("Scoring client token rejected, will re-register on next use");
+        }
+    }
+
+
+
+    public String registerClient() {
+        log.info("Registering LMS client with scoring service...");
+
+        ClientRegistrationRequest request = ClientRegistrationRequest.builder()
+                .url(appConfig.getTransactionsUrl())
+                .name(appConfig.getTransactionApiServiceName())
+                .username(appConfig.getTransactionApiServiceName())
+                .password(appConfig.getTransactionApiPassword())
+                .build();
+
+        String url = appConfig.getScoringBaseUrl() + appConfig.getScoringClientCreatePath();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpResultDto result = restClientService.sendRequest(url, HttpMethod.POST, headers, request, ClientRegistrationResponse.class);
+
+        if (!result.isSuccess()) {
+            log.error("Failed to register client: {}", result.getError());
+            throw new ExternalServiceException("Failed to register client: " + result.getError());
+        }
+
+        ClientRegistrationResponse response = (ClientRegistrationResponse) result.getMessage();
+        Instant issuedAt = Instant.now();
+        Instant expiresAt = issuedAt.plusSeconds(appConfig.getScoringClientTokenTtlSeconds());
+        Instant refreshAt = expiresAt.minusSeconds(appConfig.getScoringClientTokenRefreshAheadSeconds());
+        currentToken.set(new ClientToken(response.getToken(), refreshAt, expiresAt));
+        log.info("Client registered successfully | Name: {}, token expires at: {}", response.getName(), expiresAt);
+
+        return response.getToken();
+    }
+
+
+
+    private void refreshAhead(ClientToken token) {
+        try {
+            registerClient();
+        } catch (ExternalServiceException e) {
+            // Hold off the next refresh attempt so a failing scoring engine is not hit on every call
+            Instant nextRefreshAt = Instant.now().plusSeconds(FAILED_REFRESH_BACKOFF_SECONDS);
+            currentToken.compareAndSet(token, new ClientToken(token.value(), nextRefreshAt, token.expiresAt()));
+            log.warn("Scoring client token refresh failed, keeping current token until expiry | Error: {}", e.getMessage());
+        }
+    }
+
+
+
+    private record ClientToken(String value, Instant refreshAt, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.interview.lender.services;
+
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.entity.ScoringOutbox;
+import com.interview.lender.exception.ConcurrencyLimitExceededException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScoringOutboxDispatcher {
+
+    private final ScoringOutboxService scoringOutboxService;
+    private final ScoringService scoringService;
+    private final ScoringWorkerPool scoringWorkerPool;
+    private final AppConfig appConfig;
+
+
+
+    public int dispatchDueEntries() {
+        List<ScoringOutbox> entries = scoringOutboxService.claimDueEntries(appConfig.getScoringOutboxBatchSize());
+        if (entries.isEmpty()) return 0;
+
+        scoringWorkerPool.processAll(entries, this::dispatch);
+        return entries.size();
+    }
+
+
+
+    private void dispatch(ScoringOutbox entry) {
+        String scoringToken;
+        try {
+            scoringToken = scoringService.initiateScoring(entry.getCustomerNumber());
+        } catch (ConcurrencyLimitExceededException e) {
+            scoringOutboxService.markDeferred(entry);
+            return;
+        } catch (RuntimeException e) {
+            scoringOutboxService.markAttemptFailed(entry, e.getMessage());
+            return;
+        }
+
+        scoringOutboxService.markDispatched(entry, scoringToken);
+    }
+}
@@ -0,0 +1,127 @@
+package com.interview.lender.services;
+
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.entity.ScoringOutbox;
+import com.interview.lender.enums.LoanStatus;
+import com.interview.lender.enums.OutboxStatus;
+import com.interview.lender.repository.CustomerRepository;
+import com.interview.lender.repository.LoanRepository;
+import com.interview.lender.repository.ScoringOutboxRepository;
+import com.interview.lender.util.Util;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScoringOutboxService {
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final ScoringOutboxRepository scoringOutboxRepository;
+    private final LoanRepository loanRepository;
+    private final CustomerRepository customerRepository;
+    private final AppConfig appConfig;
+
+
+
+    @Transactional
+    public List<ScoringOutbox> claimDueEntries(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ScoringOutbox> entries = scoringOutboxRepository.findDueEntries(now, PageRequest.of(0, limit));
+        if (entries.isEmpty()) return entries;
+
+        String nodeId = appConfig.getScoringNodeId();
+        LocalDateTime leaseUntil = now.plusSeconds(appConfig.getScoringLeaseSeconds());
+        entries.forEach(entry -> {
+            entry.setClaimedBy(nodeId);
+            entry.setLeaseUntil(leaseUntil);
+        });
+
+        log.info("Claimed {} scoring outbox entries | Node: {}, lease until: {}", entries.size(), nodeId, leaseUntil);
+        return scoringOutboxRepository.saveAll(entries);
+    }
+
+
+
+    @Transactional
+    public void markDispatched(ScoringOutbox entry, String scoringToken) {
+        LocalDateTime now = LocalDateTime.now();
+
+        loanRepository.findById(entry.getLoanId())
+                .filter(loan -> loan.getStatus() == LoanStatus.PENDING)
+                .ifPresent(loan -> {
+                    loan.setStatus(LoanStatus.SCORING_IN_PROGRESS);
+                    // With callbacks on, the scoring engine pushes the result and polling only reconciles missed callbacks.
+                    // Client registration does not send a callback URL, so this stays off unless the engine is given /scoring/callback/{token} out of band
+                    int firstPollDelaySeconds = appConfig.isScoringCallbackEnabled() ? appConfig.getScoringReconciliationDelaySeconds() : 0;
+                    loan.setNextAttemptAt(now.plusSeconds(firstPollDelaySeconds));
+                    loanRepository.save(loan);
+                });
+
+        customerRepository.findByCustomerNumber(entry.getCustomerNumber()).ifPresent(customer -> {
+            customer.setScoringToken(scoringToken);
+            customerRepository.save(customer);
+        });
+
+        entry.setStatus(OutboxStatus.DISPATCHED);
+        entry.setDispatchedAt(now);
+        entry.setLastError(null);
+        releaseLease(entry);
+        scoringOutboxRepository.save(entry);
+        log.info("Scoring initiated from outbox | loan ID: {}, token: {}", entry.getLoanId(), scoringToken);
+    }
+
+
+
+    @Transactional
+    public void markAttemptFailed(ScoringOutbox entry, String error) {
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH)));
+
+        if (entry.getAttempts() >= appConfig.getScoringOutboxMaxAttempts()) {
+            entry.setStatus(OutboxStatus.FAILED);
+            loanRepository.findById(entry.getLoanId())
+                    .filter(loan -> loan.getStatus() == LoanStatus.PENDING)
+                    .ifPresent(loan -> {
+                        loan.setStatus(LoanStatus.FAILED);
+                        loanRepository.save(loan);
+                    });
+            log.warn("Scoring initiation failed | loan ID: {} after {} attempts, error: {}", entry.getLoanId(), entry.getAttempts(), error);
+        } else {
+            long baseDelayMillis = appConfig.getScoringOutboxRetryDelaySeconds() * 1000L;
+            long maxDelayMillis = appConfig.getScoringOutboxRetryMaxDelaySeconds() * 1000L;
+            entry.setNextAttemptAt(LocalDateTime.now().plus(Util.backoffWithJitter(baseDelayMillis, entry.getAttempts(), maxDelayMillis)));
+            log.warn("Scoring initiation attempt failed | loan ID: {}, attempt: {}, next attempt at: {}, error: {}",
+                    entry.getLoanId(), entry.getAttempts(), entry.getNextAttemptAt(), error);
+        }
+
+        releaseLease(entry);
+        scoringOutboxRepository.save(entry);
+    }
+
+
+
+    // The initiation was never sent, so the entry is only rescheduled and keeps its attempt count
+    @Transactional
+    public void markDeferred(ScoringOutbox entry) {
+        long baseDelayMillis = appConfig.getScoringOutboxRetryDelaySeconds() * 1000L;
+        long maxDelayMillis = appConfig.getScoringOutboxRetryMaxDelaySeconds() * 1000L;
+        entry.setNextAttemptAt(LocalDateTime.now().plus(Util.backoffWithJitter(baseDelayMillis, 1, maxDelayMillis)));
+        releaseLease(entry);
+        scoringOutboxRepository.save(entry);
+        log.info("Scoring initiation deferred by concurrency limit | loan ID: {}, next attempt at: {}", entry.getLoanId(), entry.getNextAttemptAt());
+    }
+
+
+
+    private void releaseLease(ScoringOutbox entry) {
+        entry.setClaimedBy(null);
+        entry.setLeaseUntil(null);
+    }
+}
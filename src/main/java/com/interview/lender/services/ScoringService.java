@@ -1,21 +1,20 @@
 package com.interview.lender.services;
 
 import com.interview.lender.config.AppConfig;
-import com.interview.lender.dto.ClientRegistrationRequest;
-import com.interview.lender.dto.ClientRegistrationResponse;
 import com.interview.lender.dto.HttpResultDto;
 import com.interview.lender.dto.ScoringResponse;
+import com.interview.lender.exception.ConcurrencyLimitExceededException;
 import com.interview.lender.exception.ExternalServiceException;
-import jakarta.annotation.PostConstruct;
+import com.interview.lender.resilience.AdaptiveConcurrencyLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -24,14 +23,8 @@ public class ScoringService {
 
     private final AppConfig appConfig;
     private final RestClientService restClientService;
-    private String clientToken = "";
-
-
-
-    @PostConstruct
-    public void init() {
-        registerClient();
-    }
+    private final ScoringClientTokenManager scoringClientTokenManager;
+    private final AdaptiveConcurrencyLimiter scoringConcurrencyLimiter;
 
 
 
@@ -39,9 +32,7 @@ public class ScoringService {
         log.info("Initiating scoring for customer: {}", customerNumber);
 
         String url = appConfig.getScoringBaseUrl() + appConfig.getScoringInitiatePath() + "/" + customerNumber;
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("client-token", getClientToken());
-        HttpResultDto result = restClientService.sendRequest(url, HttpMethod.GET, headers, null, String.class);
+        HttpResultDto result = sendAuthenticatedRequest(url, String.class);
 
         if (!result.isSuccess()) {
             log.error("Failed to initiate scoring: {}", result.getError());
@@ -60,10 +51,21 @@ public class ScoringService {
         log.info("Getting score for token: {}", token);
 
         String url = appConfig.getScoringBaseUrl() + appConfig.getScoringQueryPath() + "/" + token;
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("client-token", getClientToken());
-        HttpResultDto result = restClientService.sendRequest(url, HttpMethod.GET, headers, null, ScoringResponse.class);
+        return toScore(sendAuthenticatedRequest(url, ScoringResponse.class), token);
+    }
+
+
+
+    public CompletableFuture<Optional<ScoringResponse>> getScoreAsync(String token) {
+        log.info("Getting score asynchronously for token: {}", token);
+
+        String url = appConfig.getScoringBaseUrl() + appConfig.getScoringQueryPath() + "/" + token;
+        return sendAuthenticatedRequestAsync(url, ScoringResponse.class).thenApply(result -> toScore(result, token));
+    }
 
+
+
+    private Optional<ScoringResponse> toScore(HttpResultDto result, String token) {
         if (!result.isSuccess()) {
             int statusCode = result.getStatusCode();
             if (statusCode == HttpStatus.NOT_FOUND.value() || statusCode == HttpStatus.NO_CONTENT.value()) {
@@ -81,37 +83,103 @@ public class ScoringService {
 
 
 
-    public void registerClient() {
-        log.info("Registering LMS client with scoring service...");
+    // A limiter rejection is raised rather than returned, so callers can reschedule instead of counting it as a downstream failure
+    private HttpResultDto sendAuthenticatedRequest(String url, Class<?> responseClass) {
+        if (!scoringConcurrencyLimiter.tryAcquire(appConfig.getScoringLimiterMaxWaitMillis())) throw concurrencyLimitReached();
 
-        ClientRegistrationRequest request = ClientRegistrationRequest.builder()
-                .url(appConfig.getTransactionsUrl())
-                .name(appConfig.getTransactionApiServiceName())
-                .username(appConfig.getTransactionApiServiceName())
-                .password(appConfig.getTransactionApiPassword())
-                .build();
+        HttpResultDto result = null;
+        try {
+            result = sendWithClientToken(url, responseClass);
+            return result;
+        } finally {
+            releasePermit(result);
+        }
+    }
 
-        String url = appConfig.getScoringBaseUrl() + appConfig.getScoringClientCreatePath();
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpResultDto result = restClientService.sendRequest(url, HttpMethod.POST, headers, request, ClientRegistrationResponse.class);
 
-        if (!result.isSuccess()) {
-            log.error("Failed to register client: {}", result.getError());
-            throw new ExternalServiceException("Failed to register client: " + result.getError());
+
+    private CompletableFuture<HttpResultDto> sendAuthenticatedRequestAsync(String url, Class<?> responseClass) {
+        if (!scoringConcurrencyLimiter.tryAcquire(0)) return CompletableFuture.failedFuture(concurrencyLimitReached());
+
+        CompletableFuture<HttpResultDto> future;
+        try {
+            future = sendWithClientTokenAsync(url, responseClass);
+        } catch (RuntimeException e) {
+            releasePermit(null);
+            throw e;
         }
 
-        ClientRegistrationResponse response = (ClientRegistrationResponse) result.getMessage();
-        clientToken = response.getToken();
-        log.info("Client registered successfully | Name: {}, token: {}", response.getName(), response.getToken());
+        return future.whenComplete((result, e) -> releasePermit(result));
+    }
+
+
+
+    // The limit only learns from the latency of the attempt that answered; a call that never went out (circuit open,
+    // bulkhead full, or an exception before sending) frees the permit without a sample, so our own backoff cannot shrink it
+    private void releasePermit(HttpResultDto result) {
+        if (result == null || result.getLatencyNanos() <= 0) scoringConcurrencyLimiter.releaseUnsampled();
+        else scoringConcurrencyLimiter.release(result.getLatencyNanos(), isOverloaded(result));
     }
 
 
 
-    private String getClientToken() {
-        if (clientToken.isBlank()) {
-            registerClient();
+    private HttpResultDto sendWithClientToken(String url, Class<?> responseClass) {
+        String clientToken = scoringClientTokenManager.getToken();
+        HttpResultDto result = restClientService.sendRequest(url, HttpMethod.GET, clientTokenHeaders(clientToken), null, responseClass);
+
+        if (isClientTokenRejected(result)) {
+            log.warn("Scoring engine rejected client token, re-registering and retrying once | Status: {}", result.getStatusCode());
+            scoringClientTokenManager.invalidate(clientToken);
+            result = restClientService.sendRequest(url, HttpMethod.GET, clientTokenHeaders(scoringClientTokenManager.getToken()), null, responseClass);
         }
-        return clientToken;
+
+        return result;
+    }
+
+
+
+    private CompletableFuture<HttpResultDto> sendWithClientTokenAsync(String url, Class<?> responseClass) {
+        String clientToken = scoringClientTokenManager.getToken();
+
+        return restClientService.sendRequestAsync(url, HttpMethod.GET, clientTokenHeaders(clientToken), null, responseClass)
+                .thenCompose(result -> {
+                    if (!isClientTokenRejected(result)) return CompletableFuture.completedFuture(result);
+
+                    log.warn("Scoring engine rejected client token, re-registering and retrying once | Status: {}", result.getStatusCode());
+                    scoringClientTokenManager.invalidate(clientToken);
+                    return restClientService.sendRequestAsync(url, HttpMethod.GET, clientTokenHeaders(scoringClientTokenManager.getToken()), null, responseClass);
+                });
+    }
+
+
+
+    private boolean isOverloaded(HttpResultDto result) {
+        int statusCode = result.getStatusCode();
+        return statusCode >= 500
+               || statusCode == HttpStatus.REQUEST_TIMEOUT.value()
+               || statusCode == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+
+
+    private ConcurrencyLimitExceededException concurrencyLimitReached() {
+        log.warn("Scoring concurrency limit reached | limit: {}", scoringConcurrencyLimiter.getLimit());
+
+        return new ConcurrencyLimitExceededException("Scoring concurrency limit reached");
+    }
+
+
+
+    private boolean isClientTokenRejected(HttpResultDto result) {
+        int statusCode = result.getStatusCode();
+        return statusCode == HttpStatus.UNAUTHORIZED.value() || statusCode == HttpStatus.FORBIDDEN.value();
+    }
+
+
+
+    private HttpHeaders clientTokenHeaders(String clientToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("client-token", clientToken);
+        return headers;
     }
-}
\ No newline at end of file
+}
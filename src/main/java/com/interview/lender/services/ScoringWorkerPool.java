@@ -0,0 +1,99 @@
+package com.interview.lender.services;
+
+import com.interview.lender.config.AppConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@Service
+@Slf4j
+public class ScoringWorkerPool {
+
+    private final ExecutorService executor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private final Timer taskTimer;
+
+
+
+    public ScoringWorkerPool(AppConfig appConfig, MeterRegistry meterRegistry) {
+        int poolSize = Math.max(1, appConfig.getScoringWorkerPoolSize());
+        this.executor = Executors.newFixedThreadPool(poolSize, Thread.ofVirtual().name("scoring-worker-", 0).factory());
+        this.completedCounter = Counter.builder("lender.scoring.worker.completed")
+                .description("Scoring tasks completed without error")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("lender.scoring.worker.failed")
+                .description("Scoring tasks that threw an error")
+                .register(meterRegistry);
+        this.taskTimer = Timer.builder("lender.scoring.worker.duration")
+                .description("Time taken by a single scoring task")
+                .register(meterRegistry);
+        Gauge.builder("lender.scoring.worker.inflight", inFlight, AtomicInteger::get)
+                .description("Scoring tasks currently executing")
+                .register(meterRegistry);
+        log.info("Scoring worker pool started | size: {}", poolSize);
+    }
+
+
+
+    public <T> void processAll(List<T> items, Consumer<T> task) {
+        if (items.isEmpty()) return;
+
+        CompletableFuture<?>[] futures = items.stream()
+                .map(item -> CompletableFuture.runAsync(() -> runIsolated(item, task), executor))
+                .toArray(CompletableFuture[]::new);
+
+        CompletableFuture.allOf(futures).join();
+    }
+
+
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+
+
+    private <T> void runIsolated(T item, Consumer<T> task) {
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            task.accept(item);
+            completedCounter.increment();
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.error("Scoring task failed | item: {}", item, e);
+        } finally {
+            taskTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            inFlight.decrementAndGet();
+        }
+    }
+
+
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,27 +1,46 @@
 package com.interview.lender.services;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.interview.lender.config.AppConfig;
+import com.interview.lender.dto.CachedTransactionHistory;
 import com.interview.lender.dto.HttpResultDto;
 import com.interview.lender.dto.ResponseDto;
+import com.interview.lender.dto.TransactionBatchResult;
 import com.interview.lender.dto.TransactionDto;
-import com.interview.lender.dto.TransactionSoapResponse;
+import com.interview.lender.exception.DeadlineExceededException;
+import com.interview.lender.exception.ExternalServiceException;
+import com.interview.lender.resilience.Deadline;
+import com.interview.lender.resilience.SingleFlight;
 import com.interview.lender.util.Util;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static com.interview.lender.util.Constants.MOCK_TRANSACTIONS_RESPONSE;
-import static com.interview.lender.util.Constants.TRANSACTIONS_REQUEST_TEMPLATE;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.OK;
 
 @Service
@@ -29,69 +48,269 @@ import static org.springframework.http.HttpStatus.OK;
 @Slf4j
 public class TransactionService {
 
+    private static final String TRANSACTION_ELEMENT = "transactions";
+    private static final XMLInputFactory XML_INPUT_FACTORY = secureXmlInputFactory();
+
     private final AppConfig appConfig;
     private final RestClientService restClientService;
-    private final XmlMapper xmlMapper = new XmlMapper();
+    private final ObjectReaderRegistry objectReaderRegistry;
+    private final Cache<String, CachedTransactionHistory> transactionHistoryCache;
+    private final SingleFlight<String, List<TransactionDto>> transactionHistoryFlights;
+    private final CbsSoapRequests cbsSoapRequests;
+    private final Set<String> refreshesInFlight = ConcurrentHashMap.newKeySet();
+
 
 
+    public ResponseDto getTransactionHistory(String customerNumber) {
+        // Concurrent misses for one customer share a single CBS call and its parsed result; the mock fallback is applied per caller
+        List<TransactionDto> transactions = cachedTransactions(customerNumber).orElseGet(() -> {
+            try {
+                return orMockTransactions(transactionHistoryFlights.execute(customerNumber, () -> {
+                    HttpResultDto result = restClientService.sendRequestStreaming(appConfig.getCbsTransactionUrl(), null, cbsSoapRequests.headers(),
+                            cbsSoapRequests.transactionsRequest(customerNumber), body -> readTransactions(body, customerNumber));
+                    return cbsTransactions(result, customerNumber);
+                }));
+            } catch (ExternalServiceException e) {
+                return getMockTransactionHistory();
+            }
+        });
 
-    @PostConstruct
-    public void initXmlMapper() {
-        xmlMapper.registerModule(new JavaTimeModule());
+        return Util.buildSuccessResponse("Transaction history data", transactions, OK);
     }
 
 
 
-    public ResponseDto getTransactionHistory(String customerNumber) {
-        String soapRequest = buildSoapRequest(customerNumber);
-        String url = appConfig.getCbsTransactionUrl();
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.TEXT_XML);
-        headers.set("SOAPAction", "");
-        headers.set("Accept", "text/xml, application/xml");
-        HttpResultDto result = restClientService.sendRequest(url, null, headers, soapRequest, String.class);
+    public CompletableFuture<ResponseDto> getTransactionHistoryAsync(String customerNumber) {
+        Optional<List<TransactionDto>> cached = cachedTransactions(customerNumber);
+        if (cached.isPresent()) return CompletableFuture.completedFuture(Util.buildSuccessResponse("Transaction history data", cached.get(), OK));
 
-        List<TransactionDto> transactions = extractTransactions(result, customerNumber);
+        return sharedTransactionsAsync(customerNumber)
+                .thenApply(this::orMockTransactions)
+                .exceptionallyCompose(e -> unwrap(e) instanceof ExternalServiceException
+                        ? CompletableFuture.completedFuture(getMockTransactionHistory())
+                        : CompletableFuture.failedFuture(e))
+                .thenApply(transactions -> Util.buildSuccessResponse("Transaction history data", transactions, OK));
+    }
 
-        return Util.buildSuccessResponse("Transaction history data", transactions, OK);
+
+
+    public List<String> batchCustomerNumbers(List<String> customerNumbers) {
+        List<String> distinct = customerNumbers.stream().map(String::trim).distinct().toList();
+        if (distinct.size() > appConfig.getTransactionBatchMaxSize()) {
+            throw new IllegalArgumentException("At most " + appConfig.getTransactionBatchMaxSize() + " customer numbers per batch, got " + distinct.size());
+        }
+        return distinct;
     }
 
 
 
-    private String buildSoapRequest(String customerNumber) {
-        return String.format(
-                TRANSACTIONS_REQUEST_TEMPLATE,
-                appConfig.getCbsUsername(),
-                appConfig.getCbsPassword(),
-                customerNumber
-        );
+    // At most maxParallelism histories are outstanding; each result reaches the sink on the calling thread as soon as it lands,
+    // and a failed customer is reported in its own entry without affecting the rest. Customer numbers are expected to be distinct,
+    // as returned by batchCustomerNumbers
+    public void forEachTransactionHistory(List<String> customerNumbers, BiConsumer<String, ResponseDto> sink) throws InterruptedException {
+        BlockingQueue<TransactionBatchResult> landed = new LinkedBlockingQueue<>();
+        Set<String> outstanding = new LinkedHashSet<>(customerNumbers);
+        Deadline deadline = Deadline.current().orElseGet(() -> Deadline.afterMillis(appConfig.getTransactionBatchTimeoutMillis()));
+        int parallelism = Math.max(1, appConfig.getTransactionBatchMaxParallelism());
+        int started = 0;
+
+        while (!outstanding.isEmpty()) {
+            int delivered = customerNumbers.size() - outstanding.size();
+            while (started < customerNumbers.size() && started - delivered < parallelism) {
+                String customerNumber = customerNumbers.get(started++);
+                historyOrError(customerNumber).thenAccept(response -> landed.add(new TransactionBatchResult(customerNumber, response)));
+            }
+
+            TransactionBatchResult result = landed.poll(Math.max(0, deadline.remainingMillis()), TimeUnit.MILLISECONDS);
+            if (result == null) {
+                // Whatever has not landed by the deadline, started or not, still gets its own entry
+                log.warn("Batch transaction history deadline passed | Outstanding: {}", outstanding.size());
+                outstanding.forEach(customerNumber -> sink.accept(customerNumber,
+                        Util.buildErrorResponse("Transaction history request timed out", GATEWAY_TIMEOUT)));
+                return;
+            }
+            if (outstanding.remove(result.getCustomerNumber())) {
+                sink.accept(result.getCustomerNumber(), result.getResult());
+            }
+        }
     }
 
 
 
-    private List<TransactionDto> extractTransactions(HttpResultDto result, String customerNumber) {
-        if (result.isSuccess()) {
-            try {
-                TransactionSoapResponse response = xmlMapper.readValue(result.getMessage().toString(), TransactionSoapResponse.class);
+    private CompletableFuture<ResponseDto> historyOrError(String customerNumber) {
+        CompletableFuture<ResponseDto> history;
+        try {
+            history = getBatchTransactionHistoryAsync(customerNumber);
+        } catch (RuntimeException e) {
+            history = CompletableFuture.failedFuture(e);
+        }
+
+        return history.exceptionally(e -> {
+            Throwable cause = unwrap(e);
+            log.error("Batch transaction history failed | CustomerNumber: {}", customerNumber, cause);
+            if (cause instanceof DeadlineExceededException) return Util.buildErrorResponse("Transaction history request timed out", GATEWAY_TIMEOUT);
+            if (cause instanceof ExternalServiceException) return Util.buildErrorResponse("Core banking transaction service unavailable", BAD_GATEWAY);
+            return Util.buildErrorResponse("Failed to retrieve transaction history", INTERNAL_SERVER_ERROR);
+        });
+    }
+
+
+
+    // Joins the same flight as the single-customer lookup, but without its mock fallback: a failed CBS call fails this customer's entry
+    private CompletableFuture<ResponseDto> getBatchTransactionHistoryAsync(String customerNumber) {
+        Optional<List<TransactionDto>> cached = cachedTransactions(customerNumber);
+        if (cached.isPresent()) return CompletableFuture.completedFuture(Util.buildSuccessResponse("Transaction history data", cached.get(), OK));
+
+        return sharedTransactionsAsync(customerNumber)
+                .thenApply(transactions -> Util.buildSuccessResponse("Transaction history data", transactions, OK));
+    }
+
+
+
+    private CompletableFuture<List<TransactionDto>> sharedTransactionsAsync(String customerNumber) {
+        return transactionHistoryFlights.executeAsync(customerNumber,
+                () -> fetchTransactionsAsync(customerNumber).thenApply(result -> cbsTransactions(result, customerNumber)));
+    }
+
+
+
+    // Past the soft TTL an entry is still served, and one background fetch replaces it; the hard TTL is the cache's expireAfterWrite
+    private Optional<List<TransactionDto>> cachedTransactions(String customerNumber) {
+        CachedTransactionHistory cached = transactionHistoryCache.getIfPresent(customerNumber);
+        if (cached == null) return Optional.empty();
+
+        if (cached.isOlderThan(TimeUnit.SECONDS.toNanos(appConfig.getCbsTransactionCacheSoftTtlSeconds()))) {
+            refreshInBackground(customerNumber);
+        }
+        return Optional.of(cached.transactions());
+    }
+
+
+
+    private void refreshInBackground(String customerNumber) {
+        if (!refreshesInFlight.add(customerNumber)) return;
+
+        // The refresh outlives the request that noticed the stale entry, so it must not inherit that request's deadline
+        Optional<Deadline> deadline = Deadline.current();
+        Deadline.clear();
+        CompletableFuture<HttpResultDto> refresh;
+        try {
+            refresh = fetchTransactionsAsync(customerNumber);
+        } catch (RuntimeException e) {
+            // A call that fails before returning a future must still release the key, or the customer is never refreshed again
+            refresh = CompletableFuture.failedFuture(e);
+        } finally {
+            deadline.ifPresent(Deadline::set);
+        }
+
+        refresh.thenAccept(result -> usableTransactions(result, customerNumber).ifPresent(transactions -> cache(customerNumber, transactions)))
+                .whenComplete((ignored, e) -> {
+                    refreshesInFlight.remove(customerNumber);
+                    if (e != null) log.warn("Background refresh of transaction history failed | CustomerNumber: {}", customerNumber, e);
+                });
+    }
+
+
+
+    private CompletableFuture<HttpResultDto> fetchTransactionsAsync(String customerNumber) {
+        return restClientService.sendRequestStreamingAsync(appConfig.getCbsTransactionUrl(), null, cbsSoapRequests.headers(), cbsSoapRequests.transactionsRequest(customerNumber),
+                body -> readTransactions(body, customerNumber));
+    }
+
+
+
+    // What the shared flight hands every caller: a failed call fails the flight, and a usable answer is cached once.
+    // Empty when CBS answered with nothing worth serving, which each path treats in its own way
+    private List<TransactionDto> cbsTransactions(HttpResultDto result, String customerNumber) {
+        if (!result.isSuccess()) {
+            log.error("CBS transaction request failed | CustomerNumber: {} | Status: {}", customerNumber, result.getStatusCode());
+            throw new ExternalServiceException("CBS transaction request failed with status " + result.getStatusCode());
+        }
+        return usableTransactions(result, customerNumber).map(transactions -> cache(customerNumber, transactions)).orElse(List.of());
+    }
+
+
+
+    private List<TransactionDto> orMockTransactions(List<TransactionDto> transactions) {
+        return transactions.isEmpty() ? getMockTransactionHistory() : transactions;
+    }
+
 
-                if (response != null && response.getTransactions() != null) return response.getTransactions();
-                log.warn("SOAP response returned with no transactions | CustomerNumber: {}", customerNumber);
 
-            } catch (JsonProcessingException e) {
-                log.error("Failed to parse SOAP XML response | CustomerNumber: {}", customerNumber, e);
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+
+
+    // Empty when CBS gave nothing worth serving; mock fallbacks are never cached
+    private Optional<List<TransactionDto>> usableTransactions(HttpResultDto result, String customerNumber) {
+        if (result.isSuccess()) {
+            if (result.getMessage() instanceof List<?> transactions && !transactions.isEmpty()) {
+                @SuppressWarnings("unchecked")
+                List<TransactionDto> parsed = (List<TransactionDto>) transactions;
+                return Optional.of(parsed);
             }
+            log.warn("SOAP response returned with no transactions | CustomerNumber: {}", customerNumber);
         } else {
-            log.error("CBS transaction request failed, returning mock data | CustomerNumber: {}", customerNumber);
+            log.error("CBS transaction request failed | CustomerNumber: {}", customerNumber);
         }
 
-        return getMockTransactionHistory();
+        return Optional.empty();
+    }
+
+
+
+    private List<TransactionDto> cache(String customerNumber, List<TransactionDto> transactions) {
+        transactionHistoryCache.put(customerNumber, new CachedTransactionHistory(transactions, System.nanoTime()));
+        return transactions;
+    }
+
+
+
+    // A malformed envelope is a bad payload, not a failed call, so it must not be retried or counted against the circuit
+    private List<TransactionDto> readTransactions(InputStream body, String customerNumber) throws IOException {
+        List<TransactionDto> transactions = new ArrayList<>();
+        try {
+            forEachTransaction(body, transactions::add);
+            return transactions;
+        } catch (XMLStreamException | JsonProcessingException e) {
+            log.error("Failed to parse SOAP XML response | CustomerNumber: {} | Parsed: {}", customerNumber, transactions.size(), e);
+            return List.of();
+        }
+    }
+
+
+
+    // Walks the envelope with a StAX cursor and binds one <transactions> element at a time, so only the current record is held in parse state
+    public void forEachTransaction(InputStream body, Consumer<TransactionDto> consumer) throws IOException, XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(body);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && TRANSACTION_ELEMENT.equals(reader.getLocalName())) {
+                    consumer.accept(objectReaderRegistry.readTransaction(reader));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+
+
+    private static XMLInputFactory secureXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
     }
 
 
 
     public List<TransactionDto> getMockTransactionHistory() {
         try {
-            return new ObjectMapper().readValue(MOCK_TRANSACTIONS_RESPONSE, new TypeReference<>() {});
+            return objectReaderRegistry.transactionList().readValue(MOCK_TRANSACTIONS_RESPONSE);
         } catch (JsonProcessingException e) {
             log.error("Failed to parse mock transactions: ", e);
             return List.of();
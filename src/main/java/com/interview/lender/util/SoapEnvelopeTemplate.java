@@ -0,0 +1,139 @@
+package com.interview.lender.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A SOAP envelope split once at its %s holes into pre-encoded UTF-8 segments; values are XML-escaped
+// and copied in between, so rendering never re-parses the template or re-encodes its static text
+public final class SoapEnvelopeTemplate {
+
+    private static final String PLACEHOLDER = "%s";
+
+    private final byte[][] segments;
+
+
+
+    private SoapEnvelopeTemplate(byte[][] segments) {
+        this.segments = segments;
+    }
+
+
+
+    public static SoapEnvelopeTemplate compile(String template) {
+        List<byte[]> segments = new ArrayList<>();
+        int from = 0;
+        int hole;
+        while ((hole = template.indexOf(PLACEHOLDER, from)) >= 0) {
+            segments.add(template.substring(from, hole).getBytes(StandardCharsets.UTF_8));
+            from = hole + PLACEHOLDER.length();
+        }
+        segments.add(template.substring(from).getBytes(StandardCharsets.UTF_8));
+
+        return new SoapEnvelopeTemplate(segments.toArray(byte[][]::new));
+    }
+
+
+
+    // Folds values that never change, such as credentials, into the static segments
+    public SoapEnvelopeTemplate bind(String... leadingValues) {
+        if (leadingValues.length > holes()) {
+            throw new IllegalArgumentException("Template has " + holes() + " holes, cannot bind " + leadingValues.length + " values");
+        }
+
+        byte[][] bound = new byte[segments.length - leadingValues.length][];
+        byte[] head = segments[0];
+        for (int i = 0; i < leadingValues.length; i++) {
+            head = concat(head, escape(leadingValues[i]), segments[i + 1]);
+        }
+        bound[0] = head;
+        System.arraycopy(segments, leadingValues.length + 1, bound, 1, bound.length - 1);
+
+        return new SoapEnvelopeTemplate(bound);
+    }
+
+
+
+    public int holes() {
+        return segments.length - 1;
+    }
+
+
+
+    public byte[] render(String... values) {
+        byte[][] escaped = escapeAll(values);
+        int length = 0;
+        for (byte[] segment : segments) length += segment.length;
+        for (byte[] value : escaped) length += value.length;
+
+        byte[] body = new byte[length];
+        int position = 0;
+        for (int i = 0; i < escaped.length; i++) {
+            System.arraycopy(segments[i], 0, body, position, segments[i].length);
+            position += segments[i].length;
+            System.arraycopy(escaped[i], 0, body, position, escaped[i].length);
+            position += escaped[i].length;
+        }
+        System.arraycopy(segments[escaped.length], 0, body, position, segments[escaped.length].length);
+
+        return body;
+    }
+
+
+
+    private byte[][] escapeAll(String[] values) {
+        if (values.length != holes()) {
+            throw new IllegalArgumentException("Template has " + holes() + " holes but got " + values.length + " values");
+        }
+
+        byte[][] escaped = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) escaped[i] = escape(values[i]);
+        return escaped;
+    }
+
+
+
+    static byte[] escape(String value) {
+        if (value == null) return new byte[0];
+
+        int firstSpecial = 0;
+        while (firstSpecial < value.length() && !isSpecial(value.charAt(firstSpecial))) firstSpecial++;
+        if (firstSpecial == value.length()) return value.getBytes(StandardCharsets.UTF_8);
+
+        StringBuilder escaped = new StringBuilder(value.length() + 16).append(value, 0, firstSpecial);
+        for (int i = firstSpecial; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> escaped.append("&amp;");
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '"' -> escaped.append("&quot;");
+                case '\'' -> escaped.append("&apos;");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+
+
+    private static boolean isSpecial(char c) {
+        return c == '&' || c == '<' || c == '>' || c == '"' || c == '\'';
+    }
+
+
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) length += part.length;
+
+        byte[] joined = Arrays.copyOf(parts[0], length);
+        int position = parts[0].length;
+        for (int i = 1; i < parts.length; i++) {
+            System.arraycopy(parts[i], 0, joined, position, parts[i].length);
+            position += parts[i].length;
+        }
+        return joined;
+    }
+}
@@ -4,6 +4,9 @@ import com.interview.lender.dto.ResponseDto;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
 @Slf4j
 public class Util {
 
@@ -33,4 +36,21 @@ public class Util {
                 .message(message)
                 .build();
     }
+
+
+
+    public static Duration backoffWithJitter(long baseDelayMillis, int attempt, long maxDelayMillis) {
+        int exponent = Math.clamp(attempt - 1L, 0, 20);
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << exponent);
+        long half = ceiling / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+
+
+    public static Duration fullJitterBackoff(long baseDelayMillis, int attempt, long maxDelayMillis) {
+        int exponent = Math.clamp(attempt - 1L, 0, 20);
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << exponent);
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
 }
@@ -0,0 +1,3 @@
+-- Lease columns used to claim loans for scoring across multiple nodes
+ALTER TABLE loans ADD COLUMN IF NOT EXISTS claimed_by VARCHAR(100);
+ALTER TABLE loans ADD COLUMN IF NOT EXISTS lease_until TIMESTAMP WITHOUT TIME ZONE;
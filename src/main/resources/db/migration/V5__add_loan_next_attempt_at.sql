@@ -0,0 +1,11 @@
+-- Per-loan scheduling of the next scoring attempt
+-- Added without a default so existing rows stay NULL until the backfill below gives them their own time
+ALTER TABLE loans ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP WITHOUT TIME ZONE;
+
+UPDATE loans SET next_attempt_at = COALESCE(updated_at, created_at, CURRENT_TIMESTAMP) WHERE next_attempt_at IS NULL;
+
+-- A NULL would never compare as due, so such a loan would never be scored
+ALTER TABLE loans ALTER COLUMN next_attempt_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE loans ALTER COLUMN next_attempt_at SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_loans_status_next_attempt_at ON loans(status, next_attempt_at);
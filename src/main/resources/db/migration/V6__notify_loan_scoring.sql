@@ -0,0 +1,21 @@
+-- Wake scoring workers as soon as a loan becomes ready for scoring
+CREATE OR REPLACE FUNCTION notify_loan_scoring() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('loan_scoring', NEW.id::text);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_loans_scoring_insert ON loans;
+CREATE TRIGGER trg_loans_scoring_insert
+    AFTER INSERT ON loans
+    FOR EACH ROW
+    WHEN (NEW.status = 'SCORING_IN_PROGRESS')
+    EXECUTE FUNCTION notify_loan_scoring();
+
+DROP TRIGGER IF EXISTS trg_loans_scoring_status_update ON loans;
+CREATE TRIGGER trg_loans_scoring_status_update
+    AFTER UPDATE OF status ON loans
+    FOR EACH ROW
+    WHEN (NEW.status = 'SCORING_IN_PROGRESS' AND OLD.status IS DISTINCT FROM NEW.status)
+    EXECUTE FUNCTION notify_loan_scoring();
@@ -0,0 +1,9 @@
+-- Partial index covering only loans waiting for scoring, ordered the way the scoring claim reads them
+CREATE INDEX IF NOT EXISTS idx_loans_scoring_due ON loans(next_attempt_at, id) WHERE status = 'SCORING_IN_PROGRESS';
+
+-- Composite index for customer lookups, including the ongoing-loan status check
+CREATE INDEX IF NOT EXISTS idx_loans_customer_number_status ON loans(customer_number, status);
+
+-- Superseded by the two indexes above
+DROP INDEX IF EXISTS idx_loans_status_next_attempt_at;
+DROP INDEX IF EXISTS idx_loans_customer_number;
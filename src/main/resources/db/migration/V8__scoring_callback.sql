@@ -0,0 +1,5 @@
+-- Scoring callbacks look customers up by the token issued when scoring was initiated
+CREATE INDEX IF NOT EXISTS idx_customers_scoring_token ON customers(scoring_token);
+
+-- Optimistic locking so a scoring callback and a reconciliation poll cannot overwrite each other's decision
+ALTER TABLE loans ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,27 @@
+-- Scoring initiation requests written in the same transaction as the loan and dispatched in the background
+CREATE TABLE IF NOT EXISTS scoring_outbox (
+     id BIGSERIAL PRIMARY KEY,
+     loan_id BIGINT NOT NULL,
+     customer_number VARCHAR(255) NOT NULL,
+     status VARCHAR(50) NOT NULL,
+     attempts INTEGER DEFAULT 0,
+     next_attempt_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+     claimed_by VARCHAR(100),
+     lease_until TIMESTAMP WITHOUT TIME ZONE,
+     last_error VARCHAR(500),
+     dispatched_at TIMESTAMP WITHOUT TIME ZONE,
+     created_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+     updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+
+    -- Constraints
+     CONSTRAINT scoring_outbox_status_check CHECK (status IN ('PENDING', 'DISPATCHED', 'FAILED')),
+     CONSTRAINT scoring_outbox_attempts_non_negative CHECK (attempts >= 0),
+     CONSTRAINT uk_scoring_outbox_loan_id UNIQUE (loan_id),
+
+     CONSTRAINT fk_scoring_outbox_loan_id
+         FOREIGN KEY (loan_id)
+             REFERENCES loans(id)
+             ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_scoring_outbox_due ON scoring_outbox(next_attempt_at, id) WHERE status = 'PENDING';
@@ -0,0 +1,103 @@
+package com.interview.lender.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.net.InetAddress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RestConfigTest {
+
+    @Mock
+    private AppConfig appConfig;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PoolingHttpClientConnectionManager connectionManager;
+
+
+
+    @BeforeEach
+    void setUp() {
+        when(appConfig.getScoringBaseUrl()).thenReturn("https://scoring.example.com/api");
+        when(appConfig.getCbsKycUrl()).thenReturn("http://kyc.example.com/service/customer");
+        when(appConfig.getCbsTransactionUrl()).thenReturn("https://trx.example.com:8443/service/transaction-data");
+        when(appConfig.getHttpClientPoolMaxTotal()).thenReturn(50);
+        when(appConfig.getHttpClientPoolMaxPerRoute()).thenReturn(10);
+        when(appConfig.getHttpClientPoolMaxPerRouteScoring()).thenReturn(7);
+        when(appConfig.getHttpClientPoolMaxPerRouteKyc()).thenReturn(3);
+        when(appConfig.getHttpClientPoolMaxPerRouteTransactions()).thenReturn(5);
+        when(appConfig.getHttpClientConnectTimeoutMillis()).thenReturn(1000L);
+        when(appConfig.getHttpClientReadTimeoutMillis()).thenReturn(1000L);
+
+        meterRegistry = new SimpleMeterRegistry();
+        connectionManager = new RestConfig(appConfig).httpClientConnectionManager(meterRegistry);
+    }
+
+
+
+    @AfterEach
+    void tearDown() {
+        connectionManager.close();
+    }
+
+
+
+    @Test
+    void httpClientConnectionManager_shouldApplyRouteLimit_whenUrlUsesSchemeDefaultPort() {
+        // The routes the client plans for a request always carry the resolved port
+        assertEquals(7, connectionManager.getMaxPerRoute(route("https", "scoring.example.com", 443)));
+        assertEquals(3, connectionManager.getMaxPerRoute(route("http", "kyc.example.com", 80)));
+    }
+
+
+
+    @Test
+    void httpClientConnectionManager_shouldApplyRouteLimit_whenUrlHasExplicitPort() {
+        assertEquals(5, connectionManager.getMaxPerRoute(route("https", "trx.example.com", 8443)));
+    }
+
+
+
+    @Test
+    void httpClientConnectionManager_shouldKeepDefaultLimit_forUnconfiguredRoutes() {
+        assertEquals(10, connectionManager.getMaxPerRoute(route("https", "other.example.com", 443)));
+    }
+
+
+
+    @Test
+    void httpClientConnectionManager_shouldRegisterRouteGauges_perDownstream() {
+        assertEquals(7.0, meterRegistry.get("lender.http.client.pool.route.max").tag("downstream", "scoring").gauge().value());
+        assertEquals(3.0, meterRegistry.get("lender.http.client.pool.route.max").tag("downstream", "kyc").gauge().value());
+        assertEquals(5.0, meterRegistry.get("lender.http.client.pool.route.max").tag("downstream", "transactions").gauge().value());
+
+        for (String name : new String[]{"leased", "pending", "available"}) {
+            for (String downstream : new String[]{"scoring", "kyc", "transactions"}) {
+                assertNotNull(meterRegistry.find("lender.http.client.pool.route." + name).tag("downstream", downstream).gauge(),
+                        "Missing " + name + " gauge for " + downstream);
+            }
+        }
+        assertEquals(0.0, meterRegistry.get("lender.http.client.pool.route.leased").tag("downstream", "scoring").gauge().value());
+    }
+
+
+
+    private static HttpRoute route(String scheme, String host, int port) {
+        return new HttpRoute(new HttpHost(scheme, host, port), (InetAddress) null, "https".equals(scheme));
+    }
+}
@@ -0,0 +1,67 @@
+package com.interview.lender.controller;
+
+import com.interview.lender.dto.LoanStatusResponse;
+import com.interview.lender.dto.ResponseDto;
+import com.interview.lender.dto.ScoringResponse;
+import com.interview.lender.services.LoanService;
+import com.interview.lender.util.TestUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ScoringCallbackControllerTest {
+
+    @Mock
+    private LoanService loanService;
+
+    @InjectMocks
+    private ScoringCallbackController scoringCallbackController;
+
+    private ScoringResponse scoringResponse;
+
+
+
+    @BeforeEach
+    void setUp() {
+        scoringResponse = TestUtil.createScoringResponse();
+    }
+
+
+
+    @Test
+    void receiveScoringResult_shouldReturnSuccessResponse_whenServiceAppliesResult() {
+        LoanStatusResponse statusPayload = TestUtil.createLoanStatusResponse();
+        ResponseDto successResponse = TestUtil.createSuccessResponseDto("Scoring result applied successfully", statusPayload);
+        when(loanService.applyScoringCallback(TestUtil.TEST_SCORING_TOKEN, scoringResponse)).thenReturn(successResponse);
+
+        var response = scoringCallbackController.receiveScoringResult(TestUtil.TEST_SCORING_TOKEN, scoringResponse);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertTrue(response.getBody().isSuccess());
+        verify(loanService).applyScoringCallback(TestUtil.TEST_SCORING_TOKEN, scoringResponse);
+    }
+
+
+
+    @Test
+    void receiveScoringResult_shouldReturnConflict_whenNoLoanAwaitsToken() {
+        ResponseDto conflictResponse = TestUtil.createFailureResponseDto("No loan is awaiting scoring for this token.", HttpStatus.CONFLICT);
+        when(loanService.applyScoringCallback(TestUtil.TEST_SCORING_TOKEN, scoringResponse)).thenReturn(conflictResponse);
+
+        var response = scoringCallbackController.receiveScoringResult(TestUtil.TEST_SCORING_TOKEN, scoringResponse);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertFalse(response.getBody().isSuccess());
+    }
+}
@@ -1,6 +1,9 @@
 package com.interview.lender.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.interview.lender.dto.ResponseDto;
+import com.interview.lender.dto.TransactionBatchRequest;
 import com.interview.lender.dto.TransactionDto;
 import com.interview.lender.services.TransactionService;
 import com.interview.lender.util.TestUtil;
@@ -9,13 +12,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,6 +36,9 @@ class TransactionDataControllerTest {
     @Mock
     private TransactionService transactionService;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private TransactionDataController transactionDataController;
 
@@ -99,6 +113,48 @@ class TransactionDataControllerTest {
 
 
 
+    @Test
+    void getTransactionDataBatch_shouldStreamOneLinePerCustomer_includingFailures() throws Exception {
+        List<String> customerNumbers = List.of(TestUtil.TEST_CUSTOMER_NUMBER, TestUtil.TEST_CUSTOMER_NUMBER_2);
+        when(transactionService.batchCustomerNumbers(customerNumbers)).thenReturn(customerNumbers);
+        doAnswer(invocation -> {
+            BiConsumer<String, ResponseDto> sink = invocation.getArgument(1);
+            sink.accept(TestUtil.TEST_CUSTOMER_NUMBER_2, failureResponse);
+            sink.accept(TestUtil.TEST_CUSTOMER_NUMBER, successResponse);
+            return null;
+        }).when(transactionService).forEachTransactionHistory(anyList(), any());
+
+        var response = transactionDataController.getTransactionDataBatch(new TransactionBatchRequest(customerNumbers));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        assertNotNull(response.getBody());
+        response.getBody().writeTo(body);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        String[] lines = body.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode failed = objectMapper.readTree(lines[0]);
+        assertEquals(TestUtil.TEST_CUSTOMER_NUMBER_2, failed.get("customerNumber").asText());
+        assertFalse(failed.get("result").get("success").asBoolean());
+        assertEquals(failureResponse.getResultCode(), failed.get("result").get("resultCode").asInt());
+        JsonNode succeeded = objectMapper.readTree(lines[1]);
+        assertEquals(TestUtil.TEST_CUSTOMER_NUMBER, succeeded.get("customerNumber").asText());
+        assertTrue(succeeded.get("result").get("success").asBoolean());
+    }
+
+
+
+    @Test
+    void getTransactionDataBatch_shouldRejectBeforeStreaming_whenBatchIsTooLarge() {
+        List<String> customerNumbers = List.of(TestUtil.TEST_CUSTOMER_NUMBER, TestUtil.TEST_CUSTOMER_NUMBER_2);
+        when(transactionService.batchCustomerNumbers(customerNumbers)).thenThrow(new IllegalArgumentException("At most 1 customer numbers per batch, got 2"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionDataController.getTransactionDataBatch(new TransactionBatchRequest(customerNumbers)));
+    }
+
+
+
     private void assertValidResponse(ResponseEntity<ResponseDto> response) {
         ResponseDto body = response.getBody();
         assertAll(
@@ -0,0 +1,91 @@
+package com.interview.lender.dto;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactTransactionHistoryTest {
+    @Test
+    void toTransactions_shouldRoundTripEveryField() throws Exception {
+        List<TransactionDto> transactions = List.of(populated(1), populated(2), populated(3));
+
+        assertEquals(transactions, CompactTransactionHistory.of(transactions).toTransactions());
+    }
+
+
+
+    @Test
+    void get_shouldPreserveNullsAndSpecialValues() {
+        TransactionDto transaction = new TransactionDto();
+        transaction.setAccountNumber(null);
+        transaction.setLastTransactionType(null);
+        transaction.setAlternativechanneltrnscrAmount(null);
+        transaction.setCredittransactionsAmount(new BigDecimal("-0.00"));
+        transaction.setOverdraftLimit(new BigDecimal(BigInteger.TWO.pow(80), 2));
+        transaction.setMobilemoneycredittransactionAmount(new BigDecimal("1E+200"));
+        transaction.setMonthlyBalance(new BigDecimal(BigInteger.valueOf(Long.MIN_VALUE), 2));
+        transaction.setMaxAtmTransactions(Double.NaN);
+        transaction.setMinAtmTransactions(-0.0);
+        transaction.setMaxMonthlyBebitTransactions(Double.POSITIVE_INFINITY);
+        transaction.setLastTransactionValue(Integer.MIN_VALUE);
+
+        TransactionDto decoded = CompactTransactionHistory.of(List.of(transaction)).get(0);
+
+        assertEquals(transaction, decoded);
+        assertEquals(2, decoded.getCredittransactionsAmount().scale());
+        assertEquals(-200, decoded.getMobilemoneycredittransactionAmount().scale());
+    }
+
+
+
+    @Test
+    void get_shouldReturnFreshInstances() {
+        CompactTransactionHistory history = CompactTransactionHistory.of(List.of(new TransactionDto()));
+
+        assertNotSame(history.get(0), history.get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> history.get(1));
+    }
+
+
+
+    @Test
+    void of_shouldTakeMeaningfullyLessHeapThanTransactionDtos() throws Exception {
+        List<TransactionDto> transactions = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) transactions.add(populated(i));
+
+        long dtoBytes = GraphLayout.parseInstance(transactions).totalSize();
+        long compactBytes = GraphLayout.parseInstance(CompactTransactionHistory.of(transactions)).totalSize();
+
+        assertTrue(compactBytes < dtoBytes * 0.6, "compact " + compactBytes + " bytes vs " + dtoBytes + " bytes as TransactionDto");
+    }
+
+
+
+    // Distinct value per field and row, amounts with cents as CBS sends them
+    private static TransactionDto populated(int row) throws IllegalAccessException {
+        TransactionDto transaction = new TransactionDto();
+        int n = 0;
+        for (Field field : TransactionDto.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+            field.setAccessible(true);
+            long value = row * 1_000L + ++n;
+            Class<?> type = field.getType();
+            if (type == String.class) field.set(transaction, "10000000" + value);
+            else if (type == BigDecimal.class) field.set(transaction, BigDecimal.valueOf(value * 100 + 75, 2));
+            else if (type == long.class) field.setLong(transaction, value * 1_000_000L);
+            else if (type == int.class) field.setInt(transaction, (int) value);
+            else if (type == Integer.class) field.set(transaction, (int) value);
+            else if (type == double.class) field.setDouble(transaction, value + 0.25);
+            else fail("Unhandled TransactionDto field type " + type + " for " + field.getName());
+        }
+        return transaction;
+    }
+}
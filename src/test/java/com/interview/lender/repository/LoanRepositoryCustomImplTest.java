@@ -0,0 +1,216 @@
+package com.interview.lender.repository;
+
+import com.interview.lender.entity.Loan;
+import com.interview.lender.enums.LoanStatus;
+import com.interview.lender.util.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanRepositoryCustomImplTest {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final AtomicInteger statementExecutions = new AtomicInteger();
+    private JdbcTemplate jdbcTemplate;
+    private LoanRepositoryCustomImpl loanRepositoryCustom;
+    private String customerNumber;
+
+
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = TestDatabase.getDataSource();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        loanRepositoryCustom = new LoanRepositoryCustomImpl(new NamedParameterJdbcTemplate(countingDataSource(dataSource)));
+
+        customerNumber = UUID.randomUUID().toString().substring(0, 12);
+        jdbcTemplate.update("INSERT INTO customers (customer_number) VALUES (?)", customerNumber);
+    }
+
+
+
+    @Test
+    void batchUpdateScoringOutcomes_shouldApplyDecisionAndReleaseLease() {
+        long loanId = insertScoringLoan(0);
+        Loan loan = scoredLoan(loanId, LoanStatus.APPROVED);
+
+        int updated = loanRepositoryCustom.batchUpdateScoringOutcomes(List.of(loan), LocalDateTime.now());
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM loans WHERE id = ?", loanId);
+        assertEquals(1, updated);
+        assertEquals("APPROVED", row.get("status"));
+        assertEquals(650, row.get("credit_score"));
+        assertNull(row.get("claimed_by"));
+        assertNull(row.get("lease_until"));
+        assertEquals(1L, row.get("version"));
+    }
+
+
+
+    @Test
+    void batchUpdateScoringOutcomes_shouldSkipLoan_whenAlreadyDecidedByCallback() {
+        long loanId = insertScoringLoan(0);
+        jdbcTemplate.update("UPDATE loans SET status = 'REJECTED' WHERE id = ?", loanId);
+
+        int updated = loanRepositoryCustom.batchUpdateScoringOutcomes(List.of(scoredLoan(loanId, LoanStatus.APPROVED)), LocalDateTime.now());
+
+        assertEquals(0, updated);
+        assertEquals("REJECTED", jdbcTemplate.queryForObject("SELECT status FROM loans WHERE id = ?", String.class, loanId));
+    }
+
+
+
+    @Test
+    void bumpScoringRetries_shouldScheduleBackoff_whenRetriesRemain() {
+        long loanId = insertScoringLoan(1);
+        LocalDateTime now = LocalDateTime.now();
+
+        int updated = loanRepositoryCustom.bumpScoringRetries(List.of(loanId), 5, 10_000, 300_000, now);
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM loans WHERE id = ?", loanId);
+        LocalDateTime nextAttemptAt = ((Timestamp) row.get("next_attempt_at")).toLocalDateTime();
+        assertEquals(1, updated);
+        assertEquals(2, row.get("retry_count"));
+        assertEquals("SCORING_IN_PROGRESS", row.get("status"));
+        assertNull(row.get("claimed_by"));
+        assertFalse(nextAttemptAt.isBefore(now.plusSeconds(10)));
+        assertFalse(nextAttemptAt.isAfter(now.plusSeconds(20)));
+    }
+
+
+
+    @Test
+    void bumpScoringRetries_shouldFailLoan_whenMaxRetriesReached() {
+        long loanId = insertScoringLoan(4);
+
+        loanRepositoryCustom.bumpScoringRetries(List.of(loanId), 5, 10_000, 300_000, LocalDateTime.now());
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM loans WHERE id = ?", loanId);
+        assertEquals(5, row.get("retry_count"));
+        assertEquals("FAILED", row.get("status"));
+    }
+
+
+
+    @Test
+    void deferScoring_shouldReleaseLeaseAndReschedule_withoutSpendingRetry() {
+        long loanId = insertScoringLoan(2);
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plusSeconds(7).withNano(0);
+
+        int updated = loanRepositoryCustom.deferScoring(List.of(loanId), nextAttemptAt, LocalDateTime.now());
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM loans WHERE id = ?", loanId);
+        assertEquals(1, updated);
+        assertEquals(2, row.get("retry_count"));
+        assertEquals("SCORING_IN_PROGRESS", row.get("status"));
+        assertNull(row.get("claimed_by"));
+        assertEquals(nextAttemptAt, ((Timestamp) row.get("next_attempt_at")).toLocalDateTime());
+    }
+
+
+
+    @Test
+    void scoringOutcomes_shouldWriteWholePageInTwoStatements() {
+        List<Long> loanIds = IntStream.range(0, BATCH_SIZE).mapToObj(i -> insertScoringLoan(0)).toList();
+        List<Loan> scored = IntStream.range(0, loanIds.size()).filter(i -> i % 2 == 0)
+                .mapToObj(i -> scoredLoan(loanIds.get(i), LoanStatus.APPROVED)).toList();
+        List<Long> notReady = IntStream.range(0, loanIds.size()).filter(i -> i % 2 == 1)
+                .mapToObj(loanIds::get).toList();
+
+        // Scored loans go out as one JDBC batch and not-ready loans as one set-based UPDATE, whatever the page size
+        statementExecutions.set(0);
+        LocalDateTime now = LocalDateTime.now();
+        int scoredCount = loanRepositoryCustom.batchUpdateScoringOutcomes(scored, now);
+        int retriedCount = loanRepositoryCustom.bumpScoringRetries(notReady, 5, 10_000, 300_000, now);
+
+        assertEquals(2, statementExecutions.get());
+        assertEquals(scored.size(), scoredCount);
+        assertEquals(notReady.size(), retriedCount);
+    }
+
+
+
+    private long insertScoringLoan(int retryCount) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO loans (customer_number, requested_amount, approved_amount, status, application_date, retry_count, claimed_by, lease_until) " +
+                "VALUES (?, 1000, NULL, 'SCORING_IN_PROGRESS', now(), ?, 'node-1', now() + INTERVAL '2 minutes') RETURNING id",
+                Long.class, customerNumber, retryCount);
+    }
+
+
+
+    private Loan scoredLoan(long loanId, LoanStatus status) {
+        Loan loan = new Loan();
+        loan.setId(loanId);
+        loan.setStatus(status);
+        loan.setCreditScore(650);
+        loan.setCreditLimit(new BigDecimal("50000"));
+        loan.setExclusion("No Exclusion");
+        loan.setApprovedAmount(new BigDecimal("1000"));
+        loan.setApprovalDate(LocalDateTime.now());
+        return loan;
+    }
+
+
+
+    // Counts every execute/executeUpdate/executeBatch call, i.e. one database round trip each
+    private DataSource countingDataSource(DataSource target) {
+        return proxy(DataSource.class, target, (method, result) -> result instanceof Connection connection
+                ? proxy(Connection.class, connection, (connectionMethod, statement) -> statement instanceof Statement
+                        ? countingStatement(statement)
+                        : statement)
+                : result);
+    }
+
+
+
+    private Object countingStatement(Object statement) {
+        Class<?> statementType = statement instanceof java.sql.PreparedStatement ? java.sql.PreparedStatement.class : Statement.class;
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{statementType}, (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) statementExecutions.incrementAndGet();
+            return invoke(statement, method, args);
+        });
+    }
+
+
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, T target, ResultWrapper wrapper) {
+        return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> wrapper.wrap(method, invoke(target, method, args)));
+    }
+
+
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+
+
+    private interface ResultWrapper {
+        Object wrap(java.lang.reflect.Method method, Object result);
+    }
+}
@@ -0,0 +1,163 @@
+package com.interview.lender.repository;
+
+import com.interview.lender.util.TestDatabase;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs each LoanRepository query through Hibernate, captures the SQL it generates and checks the plans against a large seeded table
+class LoanRepositoryQueryPlanTest {
+
+    private static final int CUSTOMERS = 20_000;
+    private static final int LOANS = 200_000;
+    private static final List<String> generatedSql = new CopyOnWriteArrayList<>();
+
+    private static DataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static EntityManagerFactory entityManagerFactory;
+
+
+
+    @BeforeAll
+    static void seed() {
+        dataSource = TestDatabase.getDataSource();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.update("INSERT INTO customers (customer_number) " +
+                "SELECT 'plan-' || g FROM generate_series(1, ?) g ON CONFLICT DO NOTHING", CUSTOMERS);
+        jdbcTemplate.update("INSERT INTO loans (customer_number, requested_amount, approved_amount, status, application_date, next_attempt_at, retry_count) " +
+                "SELECT 'plan-' || (g % ? + 1), 1000, NULL, " +
+                "CASE WHEN g % 100 = 0 THEN 'SCORING_IN_PROGRESS' WHEN g % 3 = 0 THEN 'REJECTED' ELSE 'DISBURSED' END, " +
+                "now(), now() - INTERVAL '1 minute', 0 FROM generate_series(1, ?) g", CUSTOMERS, LOANS);
+        jdbcTemplate.execute("ANALYZE loans");
+        jdbcTemplate.execute("ANALYZE customers");
+
+        // Same naming strategy Spring Boot applies, so the mapped column names match the schema
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.interview.lender.entity");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                "hibernate.session_factory.statement_inspector", (StatementInspector) sql -> {
+                    generatedSql.add(sql);
+                    return sql;
+                }));
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+    }
+
+
+
+    @Test
+    void findById_shouldUseIndex() {
+        assertNoSeqScan(generatedBy(repository -> repository.findById(4242L)));
+    }
+
+
+
+    @Test
+    void findByCustomerNumber_shouldUseIndex() {
+        assertNoSeqScan(generatedBy(repository -> repository.findByCustomerNumber("plan-4242")));
+    }
+
+
+
+    @Test
+    void findOngoingLoanByCustomerNumber_shouldUseIndex() {
+        assertNoSeqScan(generatedBy(repository -> repository.findOngoingLoanByCustomerNumber("plan-4242")));
+    }
+
+
+
+    @Test
+    void findLoansForScoring_shouldUsePartialIndex() {
+        String sql = generatedBy(repository -> repository.findLoansForScoring(5, LocalDateTime.now(), PageRequest.of(0, 100)));
+        String plan = assertNoSeqScan(sql);
+
+        assertTrue(sql.toLowerCase().contains("skip locked"), "Expected the claim query to skip locked rows:\n" + sql);
+        assertTrue(plan.contains("idx_loans_scoring_due"), "Expected the partial scoring index to be used:\n" + plan);
+    }
+
+
+
+    private String generatedBy(Consumer<LoanRepository> query) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            LoanRepository repository = new JpaRepositoryFactory(entityManager).getRepository(LoanRepository.class,
+                    RepositoryFragments.just(new LoanRepositoryCustomImpl(new NamedParameterJdbcTemplate(dataSource))));
+
+            // The locking query needs a transaction; rolling back releases the claimed rows again
+            entityManager.getTransaction().begin();
+            generatedSql.clear();
+            query.accept(repository);
+            entityManager.getTransaction().rollback();
+        } finally {
+            entityManager.close();
+        }
+
+        assertEquals(1, generatedSql.size(), "Expected a single statement from the repository call:\n" + generatedSql);
+        return generatedSql.get(0);
+    }
+
+
+
+    // Prepares the generated statement as-is and explains its generic plan, which is the plan chosen independently of the bound values
+    private String assertNoSeqScan(String sql) {
+        List<String> lines = jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            int parameters = 0;
+            StringBuilder prepared = new StringBuilder();
+            for (char c : sql.toCharArray()) {
+                if (c == '?') {
+                    prepared.append('$').append(++parameters);
+                } else {
+                    prepared.append(c);
+                }
+            }
+            String arguments = parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")";
+
+            List<String> plan = new ArrayList<>();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET plan_cache_mode = force_generic_plan");
+                statement.execute("PREPARE generated AS " + prepared);
+                try (ResultSet resultSet = statement.executeQuery("EXPLAIN EXECUTE generated" + arguments)) {
+                    while (resultSet.next()) {
+                        plan.add(resultSet.getString(1));
+                    }
+                } finally {
+                    statement.execute("DEALLOCATE generated");
+                    statement.execute("RESET plan_cache_mode");
+                }
+            }
+            return plan;
+        });
+
+        String plan = String.join("\n", lines);
+        assertFalse(plan.contains("Seq Scan on loans"), "Query fell back to a sequential scan:\n" + sql + "\n" + plan);
+        return plan;
+    }
+}
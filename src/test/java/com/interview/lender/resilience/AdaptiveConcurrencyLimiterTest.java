@@ -0,0 +1,120 @@
+package com.interview.lender.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(5000);
+
+
+
+    @Test
+    void tryAcquire_shouldRejectBeyondLimit_untilPermitIsReleased() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 0.5, 1000);
+
+        assertTrue(limiter.tryAcquire(0));
+        assertTrue(limiter.tryAcquire(0));
+        assertFalse(limiter.tryAcquire(10));
+
+        limiter.release(FAST, false);
+        assertTrue(limiter.tryAcquire(0));
+    }
+
+
+
+    @Test
+    void release_shouldGrowLimitAdditively_whenSaturatedCallsAreFast() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 0.5, 1000);
+
+        runSaturatedRounds(limiter, 10);
+        int grown = limiter.getLimit();
+        runSaturatedRounds(limiter, 200);
+
+        assertTrue(grown > 2 && grown < 10);
+        assertEquals(10, limiter.getLimit());
+    }
+
+
+
+    @Test
+    void release_shouldNotGrowLimit_whenMostlyIdle() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 8, 1, 10, 0.5, 1000);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire(0);
+            limiter.release(FAST, false);
+        }
+
+        assertEquals(8, limiter.getLimit());
+    }
+
+
+
+    @Test
+    void release_shouldBackOffMultiplicatively_whenLatencyRisesOrCallsFail() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 8, 2, 10, 0.5, 1000);
+
+        limiter.tryAcquire(0);
+        limiter.release(SLOW, false);
+        assertEquals(4, limiter.getLimit());
+
+        limiter.tryAcquire(0);
+        limiter.release(FAST, true);
+        assertEquals(2, limiter.getLimit());
+
+        limiter.tryAcquire(0);
+        limiter.release(FAST, true);
+        assertEquals(2, limiter.getLimit());
+    }
+
+
+
+    @Test
+    void releaseUnsampled_shouldFreePermitWithoutMovingLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 0.5, 1000);
+        assertTrue(limiter.tryAcquire(0));
+        assertTrue(limiter.tryAcquire(0));
+
+        limiter.releaseUnsampled();
+        limiter.releaseUnsampled();
+
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+
+
+    @Test
+    void tryAcquire_shouldWakeWaiter_whenPermitIsReleased() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 10, 0.5, 1000);
+        limiter.tryAcquire(0);
+
+        Thread releaser = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            limiter.release(FAST, false);
+        });
+
+        assertTrue(limiter.tryAcquire(5000));
+        releaser.join();
+        assertEquals(1, limiter.getInFlight());
+    }
+
+
+
+    private void runSaturatedRounds(AdaptiveConcurrencyLimiter limiter, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire(0)) acquired++;
+            for (int i = 0; i < acquired; i++) limiter.release(FAST, false);
+        }
+    }
+}
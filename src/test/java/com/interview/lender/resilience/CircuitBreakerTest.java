@@ -0,0 +1,116 @@
+package com.interview.lender.resilience;
+
+import com.interview.lender.enums.CircuitState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private CircuitBreaker circuitBreaker;
+
+
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new CircuitBreaker("test", 50, 10, 4, 1000, 2, clock::get);
+    }
+
+
+
+    @Test
+    void onFailure_shouldStayClosed_whenMinimumCallsNotReached() {
+        recordFailures(3);
+
+        assertEquals(CircuitState.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+
+
+    @Test
+    void onFailure_shouldOpen_whenFailureRateReachesThreshold() {
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+        recordFailures(2);
+
+        assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+
+
+    @Test
+    void onFailure_shouldStayClosed_whenFailureRateBelowThreshold() {
+        for (int i = 0; i < 7; i++) circuitBreaker.onSuccess();
+        recordFailures(3);
+
+        assertEquals(CircuitState.CLOSED, circuitBreaker.getState());
+        assertEquals(30f, circuitBreaker.getFailureRate());
+    }
+
+
+
+    @Test
+    void onSuccess_shouldSlideOldOutcomesOutOfWindow() {
+        recordFailures(3);
+        for (int i = 0; i < 10; i++) circuitBreaker.onSuccess();
+
+        assertEquals(10, circuitBreaker.getBufferedCalls());
+        assertEquals(0f, circuitBreaker.getFailureRate());
+    }
+
+
+
+    @Test
+    void tryAcquirePermission_shouldMoveToHalfOpen_afterOpenDuration() {
+        recordFailures(4);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitState.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+
+
+    @Test
+    void onSuccess_shouldClose_whenAllHalfOpenTrialsSucceed() {
+        recordFailures(4);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        circuitBreaker.tryAcquirePermission();
+        circuitBreaker.tryAcquirePermission();
+
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+
+        assertEquals(CircuitState.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getBufferedCalls());
+    }
+
+
+
+    @Test
+    void onFailure_shouldReopen_whenHalfOpenTrialFails() {
+        recordFailures(4);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        circuitBreaker.tryAcquirePermission();
+
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+
+
+    private void recordFailures(int count) {
+        for (int i = 0; i < count; i++) circuitBreaker.onFailure();
+    }
+}
@@ -0,0 +1,90 @@
+package com.interview.lender.resilience;
+
+import com.interview.lender.config.AppConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineFilterTest {
+
+    private DeadlineFilter deadlineFilter;
+
+
+
+    @BeforeEach
+    void setUp() {
+        AppConfig appConfig = new AppConfig();
+        appConfig.setDeadlineHeader("X-Request-Timeout-Ms");
+        appConfig.setDeadlineDefaultMillis(10000);
+        appConfig.setDeadlineMaxMillis(30000);
+        appConfig.setDeadlineEndpoints(Map.of("/loans", 5000L, "/loans/subscribe", 8000L));
+        deadlineFilter = new DeadlineFilter(appConfig);
+    }
+
+
+
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+    }
+
+
+
+    @Test
+    void resolveBudgetMillis_shouldUseLongestMatchingEndpoint() {
+        assertEquals(8000, deadlineFilter.resolveBudgetMillis(request("/loans/subscribe")));
+        assertEquals(5000, deadlineFilter.resolveBudgetMillis(request("/loans/status/12345")));
+        assertEquals(10000, deadlineFilter.resolveBudgetMillis(request("/transaction-data/12345")));
+    }
+
+
+
+    @Test
+    void resolveBudgetMillis_shouldPreferHeader_cappedAtMax() {
+        MockHttpServletRequest request = request("/loans/subscribe");
+        request.addHeader("X-Request-Timeout-Ms", "1500");
+        assertEquals(1500, deadlineFilter.resolveBudgetMillis(request));
+
+        MockHttpServletRequest greedyRequest = request("/loans/subscribe");
+        greedyRequest.addHeader("X-Request-Timeout-Ms", "600000");
+        assertEquals(30000, deadlineFilter.resolveBudgetMillis(greedyRequest));
+    }
+
+
+
+    @Test
+    void resolveBudgetMillis_shouldFallBackToEndpoint_whenHeaderIsInvalid() {
+        MockHttpServletRequest request = request("/loans/subscribe");
+        request.addHeader("X-Request-Timeout-Ms", "soon");
+
+        assertEquals(8000, deadlineFilter.resolveBudgetMillis(request));
+    }
+
+
+
+    @Test
+    void doFilter_shouldExposeDeadlineDuringChain_andClearAfterwards() throws Exception {
+        AtomicReference<Long> remainingInChain = new AtomicReference<>();
+
+        deadlineFilter.doFilter(request("/loans/request"), new MockHttpServletResponse(),
+                (req, res) -> remainingInChain.set(Deadline.current().orElseThrow().remainingMillis()));
+
+        assertTrue(remainingInChain.get() > 0 && remainingInChain.get() <= 5000);
+        assertTrue(Deadline.current().isEmpty());
+    }
+
+
+
+    private MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/lender/api/v1" + path);
+        request.setContextPath("/lender/api/v1");
+        return request;
+    }
+}
@@ -0,0 +1,42 @@
+package com.interview.lender.resilience;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineTest {
+
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+    }
+
+
+
+    @Test
+    void capToCurrent_shouldKeepConfiguredTimeout_whenNoDeadlineIsSet() {
+        assertEquals(30000, Deadline.capToCurrent(30000));
+    }
+
+
+
+    @Test
+    void capToCurrent_shouldShrinkToRemainingBudget() {
+        Deadline.set(Deadline.afterMillis(2000));
+
+        long timeout = Deadline.capToCurrent(30000);
+
+        assertTrue(timeout > 0 && timeout <= 2000);
+    }
+
+
+
+    @Test
+    void cap_shouldNeverReturnZero_whenBudgetIsSpent() {
+        Deadline deadline = Deadline.afterMillis(0);
+
+        assertTrue(deadline.isExpired());
+        assertEquals(1, deadline.cap(30000));
+    }
+}
@@ -0,0 +1,225 @@
+package com.interview.lender.resilience;
+
+import com.interview.lender.dto.HttpResultDto;
+import com.interview.lender.enums.CircuitState;
+import com.interview.lender.enums.Downstream;
+import com.interview.lender.util.TestUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DownstreamGuardTest {
+
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead bulkhead;
+    private DownstreamGuard guard;
+
+
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new CircuitBreaker("scoring", 50, 4, 2, 60000, 1);
+        bulkhead = new Bulkhead(1);
+        guard = DownstreamGuard.builder()
+                .downstream(Downstream.SCORING)
+                .circuitBreaker(circuitBreaker)
+                .bulkhead(bulkhead)
+                .build();
+    }
+
+
+
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+    }
+
+
+
+    @Test
+    void execute_shouldOpenCircuit_whenDownstreamReturnsServerErrors() {
+        guard.execute(() -> TestUtil.createFailureHttpResult(500, "Internal Server Error"));
+        guard.execute(() -> TestUtil.createFailureHttpResult(500, "Internal Server Error"));
+
+        assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+    }
+
+
+
+    @Test
+    void execute_shouldNotCountClientErrorsAsFailures() {
+        guard.execute(() -> TestUtil.createFailureHttpResult(404, "Not Found"));
+        guard.execute(() -> TestUtil.createFailureHttpResult(400, "Bad Request"));
+
+        assertEquals(CircuitState.CLOSED, circuitBreaker.getState());
+        assertEquals(0f, circuitBreaker.getFailureRate());
+    }
+
+
+
+    @Test
+    void execute_shouldFailFastWithoutCalling_whenCircuitIsOpen() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        AtomicInteger calls = new AtomicInteger();
+
+        HttpResultDto result = guard.execute(() -> {
+            calls.incrementAndGet();
+            return TestUtil.createSuccessHttpResult("ok");
+        });
+
+        TestUtil.assertHttpResultFailure(result, 503);
+        assertEquals(0, calls.get());
+        assertEquals(1, bulkhead.getAvailable());
+    }
+
+
+
+    @Test
+    void execute_shouldReject_whenBulkheadIsFull() {
+        HttpResultDto result = guard.execute(() -> guard.execute(() -> TestUtil.createSuccessHttpResult("ok")));
+
+        assertEquals(503, result.getStatusCode());
+        assertEquals(1, bulkhead.getAvailable());
+    }
+
+
+
+    @Test
+    void execute_shouldReleasePermitAndRecordFailure_whenCallThrows() {
+        assertThrows(IllegalStateException.class, () -> guard.execute(() -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(1, bulkhead.getAvailable());
+        assertEquals(1, circuitBreaker.getBufferedCalls());
+    }
+
+
+
+    @Test
+    void executeAsync_shouldHoldPermitUntilFutureCompletes() {
+        CompletableFuture<HttpResultDto> pending = new CompletableFuture<>();
+
+        CompletableFuture<HttpResultDto> result = guard.executeAsync(() -> pending);
+
+        assertEquals(0, bulkhead.getAvailable());
+        assertEquals(503, guard.executeAsync(() -> CompletableFuture.completedFuture(TestUtil.createSuccessHttpResult("ok"))).join().getStatusCode());
+        pending.complete(TestUtil.createSuccessHttpResult("ok"));
+        TestUtil.assertHttpResultSuccess(result.join());
+        assertEquals(1, bulkhead.getAvailable());
+    }
+
+
+
+    @Test
+    void execute_shouldRetryServerErrors_whenCallIsRetryable() {
+        AtomicInteger calls = new AtomicInteger();
+        Iterator<HttpResultDto> results = List.of(
+                TestUtil.createFailureHttpResult(502, "Bad Gateway"),
+                TestUtil.createFailureHttpResult(500, "Internal Server Error"),
+                TestUtil.createSuccessHttpResult("ok")).iterator();
+
+        HttpResultDto result = retryingGuard(new RetryBudget(10, 20)).execute(() -> {
+            calls.incrementAndGet();
+            return results.next();
+        }, true);
+
+        TestUtil.assertHttpResultSuccess(result);
+        assertEquals(3, calls.get());
+    }
+
+
+
+    @Test
+    void execute_shouldNotRetry_whenCallIsNotRetryable() {
+        AtomicInteger calls = new AtomicInteger();
+
+        retryingGuard(new RetryBudget(10, 20)).execute(() -> {
+            calls.incrementAndGet();
+            return TestUtil.createFailureHttpResult(500, "Internal Server Error");
+        }, false);
+
+        assertEquals(1, calls.get());
+    }
+
+
+
+    @Test
+    void execute_shouldNotRetryClientErrors() {
+        AtomicInteger calls = new AtomicInteger();
+
+        HttpResultDto result = retryingGuard(new RetryBudget(10, 20)).execute(() -> {
+            calls.incrementAndGet();
+            return TestUtil.createFailureHttpResult(404, "Not Found");
+        }, true);
+
+        assertEquals(404, result.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+
+
+    @Test
+    void execute_shouldStopRetrying_whenRetryBudgetIsSpent() {
+        AtomicInteger calls = new AtomicInteger();
+
+        retryingGuard(new RetryBudget(0, 1)).execute(() -> {
+            calls.incrementAndGet();
+            return TestUtil.createFailureHttpResult(503, "Service Unavailable");
+        }, true);
+
+        assertEquals(2, calls.get());
+    }
+
+
+
+    @Test
+    void execute_shouldNotRetry_whenBackoffWouldOutliveDeadline() {
+        Deadline.set(Deadline.afterMillis(0));
+        AtomicInteger calls = new AtomicInteger();
+
+        retryingGuard(new RetryBudget(10, 20)).execute(() -> {
+            calls.incrementAndGet();
+            return TestUtil.createFailureHttpResult(500, "Internal Server Error");
+        }, true);
+
+        assertEquals(1, calls.get());
+    }
+
+
+
+    @Test
+    void executeAsync_shouldRetryServerErrors_whenCallIsRetryable() {
+        AtomicInteger calls = new AtomicInteger();
+
+        HttpResultDto result = retryingGuard(new RetryBudget(10, 20)).executeAsync(() -> CompletableFuture.completedFuture(
+                calls.incrementAndGet() == 1
+                        ? TestUtil.createFailureHttpResult(500, "Internal Server Error")
+                        : TestUtil.createSuccessHttpResult("ok")), true).join();
+
+        TestUtil.assertHttpResultSuccess(result);
+        assertEquals(2, calls.get());
+    }
+
+
+
+    private DownstreamGuard retryingGuard(RetryBudget retryBudget) {
+        return DownstreamGuard.builder()
+                .downstream(Downstream.KYC)
+                .circuitBreaker(new CircuitBreaker("kyc", 50, 10, 10, 60000, 1))
+                .bulkhead(new Bulkhead(4))
+                .retryBudget(retryBudget)
+                .maxRetries(2)
+                .retryBaseDelayMillis(1)
+                .retryMaxDelayMillis(5)
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.interview.lender.resilience;
+
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.enums.Downstream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpMethod;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DownstreamResilienceRegistryTest {
+
+    @Mock
+    private AppConfig appConfig;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DownstreamResilienceRegistry registry;
+
+
+
+    @BeforeEach
+    void setUp() {
+        when(appConfig.getCbsKycUrl()).thenReturn("https://kycapidevtest.credable.io/service/customer");
+        when(appConfig.getCbsTransactionUrl()).thenReturn("https://trxapidevtest.credable.io/service/transaction-data");
+        when(appConfig.getScoringBaseUrl()).thenReturn("https://scoringdevtest.credable.io");
+        when(appConfig.getResilienceCircuitFailureRateThreshold()).thenReturn(50);
+        when(appConfig.getResilienceCircuitSlidingWindowSize()).thenReturn(20);
+        when(appConfig.getResilienceCircuitMinimumCalls()).thenReturn(10);
+        when(appConfig.getResilienceCircuitOpenDurationMillis()).thenReturn(30000L);
+        when(appConfig.getResilienceCircuitHalfOpenPermittedCalls()).thenReturn(3);
+        when(appConfig.getResilienceBulkheadMaxConcurrentKyc()).thenReturn(20);
+        when(appConfig.getResilienceBulkheadMaxConcurrentTransactions()).thenReturn(20);
+        when(appConfig.getResilienceBulkheadMaxConcurrentScoring()).thenReturn(64);
+        when(appConfig.getResilienceRetryBudgetPercent()).thenReturn(10);
+        when(appConfig.getResilienceRetryBudgetMaxTokens()).thenReturn(20);
+        when(appConfig.getResilienceRetryPostDownstreams()).thenReturn(Set.of(Downstream.KYC, Downstream.TRANSACTIONS));
+
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new DownstreamResilienceRegistry(appConfig, meterRegistry);
+    }
+
+
+
+    @Test
+    void resolve_shouldMatchConfiguredDownstreams() {
+        assertEquals(Downstream.KYC, registry.resolve("https://kycapidevtest.credable.io/service/customer"));
+        assertEquals(Downstream.TRANSACTIONS, registry.resolve("https://trxapidevtest.credable.io/service/transaction-data"));
+        assertEquals(Downstream.SCORING, registry.resolve("https://scoringdevtest.credable.io/api/v1/scoring/queryScore/abc"));
+        assertEquals(Downstream.OTHER, registry.resolve("http://localhost:8080/api/v1/transaction-data"));
+    }
+
+
+
+    @Test
+    void guardFor_shouldReturnEmpty_whenDownstreamIsUnguarded() {
+        assertTrue(registry.guardFor(Downstream.OTHER).isEmpty());
+        assertEquals(64, registry.guardFor(Downstream.SCORING).orElseThrow()
+                .getBulkhead().getMaxConcurrentCalls());
+    }
+
+
+
+    @Test
+    void constructor_shouldRegisterStateGaugePerDownstream() {
+        assertEquals(3, meterRegistry.find("lender.http.client.circuit.state").gauges().size());
+        assertEquals(0.0, meterRegistry.get("lender.http.client.circuit.state").tag("downstream", "kyc").gauge().value());
+    }
+
+
+
+    @Test
+    void isRetryable_shouldAllowReadsAndConfiguredSoapLookups() {
+        assertTrue(registry.isRetryable(Downstream.SCORING, HttpMethod.GET));
+        assertTrue(registry.isRetryable(Downstream.KYC, null));
+        assertTrue(registry.isRetryable(Downstream.TRANSACTIONS, HttpMethod.POST));
+        assertFalse(registry.isRetryable(Downstream.SCORING, HttpMethod.POST));
+        assertFalse(registry.isRetryable(Downstream.SCORING, HttpMethod.PATCH));
+    }
+}
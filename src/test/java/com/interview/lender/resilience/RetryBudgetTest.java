@@ -0,0 +1,43 @@
+package com.interview.lender.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBudgetTest {
+
+    @Test
+    void tryAcquireRetry_shouldSpendInitialReserve_thenRefuse() {
+        RetryBudget retryBudget = new RetryBudget(10, 2);
+
+        assertTrue(retryBudget.tryAcquireRetry());
+        assertTrue(retryBudget.tryAcquireRetry());
+        assertFalse(retryBudget.tryAcquireRetry());
+    }
+
+
+
+    @Test
+    void onRequest_shouldEarnOneRetryPerTenRequests_atTenPercent() {
+        RetryBudget retryBudget = new RetryBudget(10, 2);
+        retryBudget.tryAcquireRetry();
+        retryBudget.tryAcquireRetry();
+
+        for (int i = 0; i < 9; i++) retryBudget.onRequest();
+        assertFalse(retryBudget.tryAcquireRetry());
+
+        retryBudget.onRequest();
+        assertTrue(retryBudget.tryAcquireRetry());
+    }
+
+
+
+    @Test
+    void onRequest_shouldNotGrowBeyondMaxTokens() {
+        RetryBudget retryBudget = new RetryBudget(100, 2);
+
+        for (int i = 0; i < 50; i++) retryBudget.onRequest();
+
+        assertEquals(2.0, retryBudget.getAvailableRetries());
+    }
+}
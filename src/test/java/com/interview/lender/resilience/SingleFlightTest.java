@@ -0,0 +1,136 @@
+package com.interview.lender.resilience;
+
+import com.interview.lender.exception.DeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+
+
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+    }
+
+
+
+    @Test
+    void execute_shouldRunCallOnce_forConcurrentCallersOfSameKey() throws Exception {
+        CountDownLatch callStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("cust-1", () -> {
+                calls.incrementAndGet();
+                callStarted.countDown();
+                awaitQuietly(release);
+                return "history";
+            }));
+            assertTrue(callStarted.await(1, TimeUnit.SECONDS));
+
+            Future<String> follower = executor.submit(() -> singleFlight.execute("cust-1", () -> {
+                calls.incrementAndGet();
+                return "second call";
+            }));
+            while (singleFlight.getCoalesced() == 0) Thread.onSpinWait();
+            release.countDown();
+
+            assertEquals("history", leader.get(1, TimeUnit.SECONDS));
+            assertEquals("history", follower.get(1, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+            assertEquals(1, singleFlight.getExecuted());
+            assertEquals(1, singleFlight.getCoalesced());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+
+    @Test
+    void execute_shouldStartFreshCall_afterPreviousOneCompleted() {
+        assertEquals("first", singleFlight.execute("cust-1", () -> "first"));
+        assertEquals("second", singleFlight.execute("cust-1", () -> "second"));
+
+        assertEquals(2, singleFlight.getExecuted());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+
+
+    @Test
+    void execute_shouldPropagateFailure_andForgetKey() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("cust-1", () -> {
+            throw new IllegalStateException("CBS down");
+        }));
+
+        assertEquals(0, singleFlight.getInFlight());
+        assertEquals("recovered", singleFlight.execute("cust-1", () -> "recovered"));
+    }
+
+
+
+    @Test
+    void executeAsync_shouldShareOutstandingCall_andKeepKeysApart() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.executeAsync("cust-1", () -> pending);
+        CompletableFuture<String> second = singleFlight.executeAsync("cust-1", () -> CompletableFuture.completedFuture("second call"));
+        CompletableFuture<String> other = singleFlight.executeAsync("cust-2", () -> CompletableFuture.completedFuture("other"));
+        pending.complete("history");
+
+        assertEquals("history", first.join());
+        assertEquals("history", second.join());
+        assertEquals("other", other.join());
+        assertEquals(2, singleFlight.getExecuted());
+        assertEquals(1, singleFlight.getCoalesced());
+    }
+
+
+
+    @Test
+    void executeAsync_shouldNotLetOneCallerCompleteTheSharedCall() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.executeAsync("cust-1", () -> pending);
+        CompletableFuture<String> second = singleFlight.executeAsync("cust-1", () -> pending);
+
+        first.complete("tampered");
+        pending.complete("history");
+
+        assertEquals("history", second.join());
+    }
+
+
+
+    @Test
+    void execute_shouldGiveUpWaiting_whenJoiningCallerDeadlinePasses() {
+        singleFlight.executeAsync("cust-1", CompletableFuture::new);
+        Deadline.set(Deadline.afterMillis(20));
+
+        assertThrows(DeadlineExceededException.class, () -> singleFlight.execute("cust-1", () -> "unused"));
+    }
+
+
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,22 +3,36 @@ package com.interview.lender.schedular;
 import com.interview.lender.config.AppConfig;
 import com.interview.lender.scheduler.JobScheduler;
 import com.interview.lender.services.LoanService;
+import com.interview.lender.services.ScoringOutboxDispatcher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.scheduling.TaskScheduler;
 
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
 class JobSchedulerTest {
 
     @Mock
     private AppConfig appConfig;
     @Mock
     private LoanService loanService;
+    @Mock
+    private ScoringOutboxDispatcher scoringOutboxDispatcher;
+    @Mock
+    private TaskScheduler taskScheduler;
 
     @InjectMocks
     private JobScheduler jobScheduler;
@@ -27,30 +41,145 @@ class JobSchedulerTest {
 
     @BeforeEach
     void setUp() {
-        // No specific setup needed for this simple scheduler
+        when(appConfig.isScoringDrainEnabled()).thenReturn(true);
+        when(appConfig.getScoringPageSizeMin()).thenReturn(10);
+        when(appConfig.getScoringPageSizeMax()).thenReturn(500);
+        when(appConfig.getScoringTargetPageMillis()).thenReturn(10000L);
+        when(appConfig.getScoringMaxDrainMillis()).thenReturn(60000L);
+    }
+
+
+
+    @Test
+    void processLoanScoring_shouldProcessSinglePage_whenDrainIsDisabled() {
+        when(appConfig.isScoringDrainEnabled()).thenReturn(false);
+        when(loanService.processLoanScoring(500)).thenReturn(500);
+
+        jobScheduler.processLoanScoring();
+
+        verify(loanService, times(1)).processLoanScoring(500);
+    }
+
+
+
+    @Test
+    void processLoanScoring_shouldStop_whenNoLoansAreDue() {
+        when(loanService.processLoanScoring(anyInt())).thenReturn(0);
+
+        jobScheduler.processLoanScoring();
+
+        verify(loanService, times(1)).processLoanScoring(10);
     }
 
 
 
     @Test
-    void processLoanScoring_shouldCallLoanServiceProcessLoanScoring() {
-        doNothing().when(loanService).processLoanScoring();
+    void processLoanScoring_shouldKeepPulling_whilePagesComeBackFull() {
+        when(loanService.processLoanScoring(anyInt())).thenAnswer(invocation -> invocation.getArgument(0)).thenReturn(3);
 
         jobScheduler.processLoanScoring();
 
-        verify(loanService, times(1)).processLoanScoring();
+        verify(loanService, times(2)).processLoanScoring(anyInt());
     }
 
 
 
     @Test
-    void processLoanScoring_shouldBeCalledMultipleTimes() {
-        doNothing().when(loanService).processLoanScoring();
+    void processLoanScoring_shouldGrowPageSize_whenLoansAreScoredQuickly() {
+        when(loanService.processLoanScoring(anyInt())).thenReturn(10).thenReturn(0);
 
         jobScheduler.processLoanScoring();
+
+        assertEquals(500, jobScheduler.getPageSize());
+        verify(loanService).processLoanScoring(500);
+    }
+
+
+
+    @Test
+    void processLoanScoring_shouldShrinkPageSize_whenLoansAreScoredSlowly() {
+        when(appConfig.getScoringTargetPageMillis()).thenReturn(1L);
+        when(loanService.processLoanScoring(anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return 1;
+        });
+
         jobScheduler.processLoanScoring();
+
+        assertEquals(10, jobScheduler.getPageSize());
+    }
+
+
+
+    @Test
+    void processLoanScoring_shouldYield_whenMaxDrainDurationIsReached() {
+        when(appConfig.getScoringMaxDrainMillis()).thenReturn(0L);
+        when(loanService.processLoanScoring(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
         jobScheduler.processLoanScoring();
 
-        verify(loanService, times(3)).processLoanScoring();
+        verify(loanService, times(1)).processLoanScoring(anyInt());
+    }
+
+
+
+    @Test
+    void wakeUp_shouldRunAnotherPass_whenWokenDuringRunningPass() {
+        when(loanService.processLoanScoring(anyInt())).thenAnswer(invocation -> {
+            jobScheduler.wakeUp();
+            return 0;
+        }).thenReturn(0);
+
+        jobScheduler.processLoanScoring();
+
+        verify(loanService, times(2)).processLoanScoring(anyInt());
+    }
+
+
+
+    @Test
+    void wakeUp_shouldHandDrainToScheduler_withoutRunningPassOnCallerThread() {
+        jobScheduler.wakeUp();
+
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+        verifyNoInteractions(loanService);
+    }
+
+
+
+    @Test
+    void wakeUp_shouldNotScheduleAnotherDrain_whenRequestIsAlreadyPending() {
+        jobScheduler.wakeUp();
+        jobScheduler.wakeUp();
+
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+
+
+    @Test
+    void wakeUp_shouldRunScheduledDrain_whenSchedulerExecutesIt() {
+        when(taskScheduler.schedule(any(Runnable.class), any(Instant.class))).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        });
+        when(loanService.processLoanScoring(anyInt())).thenReturn(0);
+
+        jobScheduler.wakeUp();
+        jobScheduler.wakeUp();
+
+        verify(loanService, times(2)).processLoanScoring(anyInt());
+    }
+
+
+
+    @Test
+    void dispatchScoringOutbox_shouldKeepDispatching_whileBatchesComeBackFull() {
+        when(appConfig.getScoringOutboxBatchSize()).thenReturn(50);
+        when(scoringOutboxDispatcher.dispatchDueEntries()).thenReturn(50).thenReturn(50).thenReturn(7);
+
+        jobScheduler.dispatchScoringOutbox();
+
+        verify(scoringOutboxDispatcher, times(3)).dispatchDueEntries();
     }
 }
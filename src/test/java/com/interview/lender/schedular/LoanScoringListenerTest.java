@@ -0,0 +1,94 @@
+package com.interview.lender.schedular;
+
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.scheduler.JobScheduler;
+import com.interview.lender.scheduler.LoanScoringListener;
+import com.interview.lender.util.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LoanScoringListenerTest {
+
+    @Mock
+    private JobScheduler jobScheduler;
+    @Mock
+    private AppConfig appConfig;
+
+    private JdbcTemplate jdbcTemplate;
+    private LoanScoringListener listener;
+
+
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        DataSource dataSource = TestDatabase.getDataSource();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        when(appConfig.getScoringListenerPollMillis()).thenReturn(200);
+        when(appConfig.getScoringListenerReconnectMillis()).thenReturn(200L);
+
+        listener = new LoanScoringListener(dataSource, jobScheduler, appConfig);
+        listener.start();
+        // Give the listener thread time to issue LISTEN before the test writes
+        Thread.sleep(500);
+    }
+
+
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+
+
+    @Test
+    void listener_shouldWakeScheduler_whenLoanEntersScoring() {
+        insertLoan("SCORING_IN_PROGRESS");
+
+        verify(jobScheduler, timeout(5000).atLeastOnce()).wakeUp();
+    }
+
+
+
+    @Test
+    void listener_shouldWakeScheduler_whenLoanStatusChangesToScoring() {
+        long loanId = insertLoan("PENDING");
+
+        jdbcTemplate.update("UPDATE loans SET status = 'SCORING_IN_PROGRESS' WHERE id = ?", loanId);
+
+        verify(jobScheduler, timeout(5000).atLeastOnce()).wakeUp();
+    }
+
+
+
+    @Test
+    void listener_shouldStayIdle_whenLoanDoesNotNeedScoring() {
+        insertLoan("APPROVED");
+
+        verify(jobScheduler, after(1000).never()).wakeUp();
+    }
+
+
+
+    private long insertLoan(String status) {
+        String customerNumber = UUID.randomUUID().toString().substring(0, 12);
+        jdbcTemplate.update("INSERT INTO customers (customer_number) VALUES (?)", customerNumber);
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO loans (customer_number, requested_amount, approved_amount, status, application_date) VALUES (?, 1000, NULL, ?, now()) RETURNING id",
+                Long.class, customerNumber, status);
+    }
+}
@@ -1,30 +1,33 @@
 package com.interview.lender.service;
 
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.interview.lender.config.AppConfig;
 import com.interview.lender.dto.CustomerDto;
 import com.interview.lender.dto.HttpResultDto;
+import com.interview.lender.services.CbsSoapRequests;
 import com.interview.lender.services.CustomerService;
+import com.interview.lender.services.ObjectReaderRegistry;
 import com.interview.lender.services.RestClientService;
 import com.interview.lender.util.TestUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.http.HttpHeaders;
 
-import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static com.interview.lender.util.TestUtil.MOCK_KYC_XML_RESPONSE_WITHOUT_CUSTOMER_DETAILS;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -35,7 +38,7 @@ class CustomerServiceTest {
     @Mock
     private RestClientService restClientService;
 
-    @InjectMocks
+    private Cache<String, Optional<CustomerDto>> kycCustomerCache;
     private CustomerService customerService;
 
     private HttpResultDto successResult;
@@ -45,9 +48,12 @@ class CustomerServiceTest {
 
     @BeforeEach
     void setUp() {
+        kycCustomerCache = Caffeine.newBuilder().build();
         when(appConfig.getCbsKycUrl()).thenReturn(TestUtil.TEST_KYC_SOAP_URL);
         when(appConfig.getCbsUsername()).thenReturn(TestUtil.TEST_CBS_USERNAME);
         when(appConfig.getCbsPassword()).thenReturn(TestUtil.TEST_CBS_PASSWORD);
+        customerService = new CustomerService(appConfig, restClientService, new ObjectReaderRegistry(new ObjectMapper()), kycCustomerCache,
+                new CbsSoapRequests(appConfig));
 
         successResult = TestUtil.createSuccessHttpResult(TestUtil.MOCK_KYC_XML_RESPONSE);
         failureResult = TestUtil.createFailureHttpResult(500, "Internal Server Error");
@@ -55,24 +61,11 @@ class CustomerServiceTest {
 
 
 
-    @Test
-    void initXmlMapper_shouldRegisterJavaTimeModule() throws Exception {
-        customerService.initXmlMapper();
-
-        Field xmlMapperField = CustomerService.class.getDeclaredField("xmlMapper");
-        xmlMapperField.setAccessible(true);
-        XmlMapper xmlMapper = (XmlMapper) xmlMapperField.get(customerService);
-
-        assertTrue(xmlMapper.getRegisteredModuleIds().contains("jackson-datatype-jsr310"));
-    }
-
-
-
     @Test
     void getCustomerByNumber_shouldReturnCustomer_whenValidResponse() {
         HttpResultDto validSuccessResult = TestUtil.createSuccessHttpResult(TestUtil.MOCK_KYC_XML_RESPONSE);
 
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class))).thenReturn(validSuccessResult);
+        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), eq(String.class))).thenReturn(validSuccessResult);
 
         Optional<CustomerDto> result = customerService.getCustomerByNumber(TestUtil.TEST_CUSTOMER_NUMBER);
 
@@ -80,14 +73,14 @@ class CustomerServiceTest {
         assertEquals(TestUtil.TEST_CUSTOMER_NUMBER, result.get().getCustomerNumber());
         assertEquals("John", result.get().getFirstName());
         assertEquals("Doe", result.get().getLastName());
-        verify(restClientService).sendRequest(eq(TestUtil.TEST_KYC_SOAP_URL), isNull(), any(HttpHeaders.class), contains(TestUtil.TEST_CUSTOMER_NUMBER), eq(String.class));
+        verify(restClientService).sendRequest(eq(TestUtil.TEST_KYC_SOAP_URL), isNull(), any(HttpHeaders.class), soapContaining(TestUtil.TEST_CUSTOMER_NUMBER), eq(String.class));
     }
 
 
 
     @Test
     void getCustomerByNumber_shouldReturnEmpty_whenRequestFails() {
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class))).thenReturn(failureResult);
+        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), eq(String.class))).thenReturn(failureResult);
 
         var result = customerService.getCustomerByNumber(TestUtil.TEST_CUSTOMER_NUMBER);
 
@@ -101,7 +94,7 @@ class CustomerServiceTest {
         String malformedXml = "<?xml version='1.0' encoding='UTF-8'?><soap:Envelope><unclosed-tag>";
         HttpResultDto malformedResult = TestUtil.createSuccessHttpResult(malformedXml);
 
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class))).thenReturn(malformedResult);
+        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), eq(String.class))).thenReturn(malformedResult);
 
         var result = customerService.getCustomerByNumber(TestUtil.TEST_CUSTOMER_NUMBER);
 
@@ -113,7 +106,7 @@ class CustomerServiceTest {
     @Test
     void getCustomerByNumber_shouldReturnEmpty_whenCustomerNotFoundInResponse() {
         HttpResultDto emptyResult = TestUtil.createSuccessHttpResult(MOCK_KYC_XML_RESPONSE_WITHOUT_CUSTOMER_DETAILS);
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class))).thenReturn(emptyResult);
+        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), eq(String.class))).thenReturn(emptyResult);
 
         var result = customerService.getCustomerByNumber(TestUtil.TEST_CUSTOMER_NUMBER_INVALID);
 
@@ -124,14 +117,107 @@ class CustomerServiceTest {
 
     @Test
     void buildSoapRequest_shouldContainCorrectCredentialsAndCustomerNumber() {
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class))).thenReturn(successResult);
+        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), eq(String.class))).thenReturn(successResult);
 
         customerService.getCustomerByNumber(TestUtil.TEST_CUSTOMER_NUMBER);
 
         verify(restClientService).sendRequest(anyString(), isNull(), any(HttpHeaders.class),
-                argThat(soapRequest -> soapRequest.toString().contains(TestUtil.TEST_CBS_USERNAME)
-                                       && soapRequest.toString().contains(TestUtil.TEST_CBS_PASSWORD)
-                                       && soapRequest.toString().contains(TestUtil.TEST_CUSTOMER_NUMBER)),
+                argThat((byte[] soapRequest) -> soapText(soapRequest).contains(TestUtil.TEST_CBS_USERNAME)
+                                       && soapText(soapRequest).contains(TestUtil.TEST_CBS_PASSWORD)
+                                       && soapText(soapRequest).contains(TestUtil.TEST_CUSTOMER_NUMBER)),
                 eq(String.class));
     }
+
+
+
+    @Test
+    void getCustomerByNumberAsync_shouldReturnCustomer_whenValidResponse() {
+        HttpResultDto validSuccessResult = TestUtil.createSuccessHttpResult(TestUtil.MOCK_KYC_XML_RESPONSE);
+        when(restClientService.sendRequestAsync(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), eq(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(validSuccessResult));
+
+        Optional<CustomerDto> result = customerService.getCustomerByNumberAsync(TestUtil.TEST_CUSTOMER_NUMBER).join();
+
+        assertTrue(result.isPresent());
+        assertEquals(TestUtil.TEST_CUSTOMER_NUMBER, result.get().getCustomerNumber());
+        verify(restClientService).sendRequestAsync(eq(TestUtil.TEST_KYC_SOAP_URL), isNull(), any(HttpHeaders.class), soapContaining(TestUtil.TEST_CUSTOMER_NUMBER), eq(String.class));
+    }
+
+
+
+    @Test
+    void getCustomerByNumberAsync_shouldReturnEmpty_whenRequestFails() {
+        when(restClientService.sendRequestAsync(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), eq(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(failureResult));
+
+        var result = customerService.getCustomerByNumberAsync(TestUtil.TEST_CUSTOMER_NUMBER).join();
+
+        assertFalse(result.isPresent());
+    }
+
+
+
+    @Test
+    void getCustomerByNumber_shouldServeFromCache_whenCustomerWasFetchedBefore() {
+        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), eq(String.class))).thenReturn(successResult);
+
+        customerService.getCustomerByNumber(TestUtil.TEST_CUSTOMER_NUMBER);
+        Optional<CustomerDto> second = customerService.getCustomerByNumber(TestUtil.TEST_CUSTOMER_NUMBER);
+
+        assertTrue(second.isPresent());
+        verify(restClientService, times(1)).sendRequest(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), eq(String.class));
+    }
+
+
+
+    @Test
+    void getCustomerByNumber_shouldCacheNotFound_whenCbsAnswersWithoutCustomer() {
+        HttpResultDto emptyResult = TestUtil.createSuccessHttpResult(MOCK_KYC_XML_RESPONSE_WITHOUT_CUSTOMER_DETAILS);
+        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), eq(String.class))).thenReturn(emptyResult);
+
+        customerService.getCustomerByNumber(TestUtil.TEST_CUSTOMER_NUMBER_INVALID);
+        customerService.getCustomerByNumber(TestUtil.TEST_CUSTOMER_NUMBER_INVALID);
+
+        assertEquals(Optional.empty(), kycCustomerCache.getIfPresent(TestUtil.TEST_CUSTOMER_NUMBER_INVALID));
+        verify(restClientService, times(1)).sendRequest(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), eq(String.class));
+    }
+
+
+
+    @Test
+    void getCustomerByNumber_shouldNotCache_whenRequestFails() {
+        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), eq(String.class)))
+                .thenReturn(failureResult)
+                .thenReturn(successResult);
+
+        assertFalse(customerService.getCustomerByNumber(TestUtil.TEST_CUSTOMER_NUMBER).isPresent());
+        assertTrue(customerService.getCustomerByNumber(TestUtil.TEST_CUSTOMER_NUMBER).isPresent());
+
+        verify(restClientService, times(2)).sendRequest(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), eq(String.class));
+    }
+
+
+
+    @Test
+    void getCustomerByNumberAsync_shouldServeFromCache_withoutCallingCbs() {
+        CustomerDto customer = CustomerDto.builder().customerNumber(TestUtil.TEST_CUSTOMER_NUMBER).build();
+        kycCustomerCache.put(TestUtil.TEST_CUSTOMER_NUMBER, Optional.of(customer));
+
+        Optional<CustomerDto> result = customerService.getCustomerByNumberAsync(TestUtil.TEST_CUSTOMER_NUMBER).join();
+
+        assertEquals(Optional.of(customer), result);
+        verifyNoInteractions(restClientService);
+    }
+
+
+
+    private static byte[] soapContaining(String fragment) {
+        return argThat(body -> soapText(body).contains(fragment));
+    }
+
+
+
+    private static String soapText(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8);
+    }
 }
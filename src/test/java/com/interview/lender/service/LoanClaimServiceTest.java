@@ -0,0 +1,84 @@
+package com.interview.lender.service;
+
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.entity.Loan;
+import com.interview.lender.repository.LoanRepository;
+import com.interview.lender.services.LoanClaimService;
+import com.interview.lender.util.TestUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanClaimServiceTest {
+
+    private static final String NODE_ID = "lms-node-1";
+
+    @Mock
+    private LoanRepository loanRepository;
+    @Mock
+    private AppConfig appConfig;
+
+    @InjectMocks
+    private LoanClaimService loanClaimService;
+
+
+
+    @Test
+    void claimLoansForScoring_shouldStampLeaseOnClaimedLoans() {
+        Loan loan = TestUtil.createScoringInProgressLoanEntity();
+        when(appConfig.getScoringRetryMaxAttempts()).thenReturn(5);
+        when(appConfig.getScoringNodeId()).thenReturn(NODE_ID);
+        when(appConfig.getScoringLeaseSeconds()).thenReturn(120);
+        when(loanRepository.findLoansForScoring(eq(5), any(LocalDateTime.class), eq(PageRequest.of(0, 50)))).thenReturn(List.of(loan));
+        when(loanRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        LocalDateTime before = LocalDateTime.now();
+        var claimed = loanClaimService.claimLoansForScoring(50);
+
+        assertEquals(1, claimed.size());
+        assertEquals(NODE_ID, claimed.getFirst().getClaimedBy());
+        assertTrue(claimed.getFirst().getLeaseUntil().isAfter(before.plusSeconds(119)));
+        verify(loanRepository).saveAll(List.of(loan));
+    }
+
+
+
+    @Test
+    void claimLoansForScoring_shouldNotWrite_whenNoLoansAreDue() {
+        when(appConfig.getScoringRetryMaxAttempts()).thenReturn(5);
+        when(loanRepository.findLoansForScoring(eq(5), any(LocalDateTime.class), any())).thenReturn(List.of());
+
+        var claimed = loanClaimService.claimLoansForScoring(50);
+
+        assertTrue(claimed.isEmpty());
+        verify(loanRepository, never()).saveAll(anyList());
+    }
+
+
+
+    @Test
+    void recordScoringOutcomes_shouldBatchScoredLoansAndBumpNotReadyAndFailedLoansInOneStatement() {
+        Loan scoredLoan = TestUtil.createApprovedLoanEntity();
+        when(appConfig.getScoringRetryMaxAttempts()).thenReturn(5);
+        when(appConfig.getScoringRetryDelaySeconds()).thenReturn(10);
+        when(appConfig.getScoringRetryMaxDelaySeconds()).thenReturn(300);
+
+        loanClaimService.recordScoringOutcomes(List.of(scoredLoan), List.of(2L, 3L), List.of(4L), List.of(5L));
+
+        verify(loanRepository).batchUpdateScoringOutcomes(eq(List.of(scoredLoan)), any(LocalDateTime.class));
+        verify(loanRepository).bumpScoringRetries(eq(List.of(2L, 3L, 4L)), eq(5), eq(10_000L), eq(300_000L), any(LocalDateTime.class));
+        verify(loanRepository).deferScoring(eq(List.of(5L)), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(loanRepository, never()).save(any(Loan.class));
+    }
+}
@@ -8,11 +8,17 @@ import com.interview.lender.dto.SubscriptionRequest;
 import com.interview.lender.entity.Customer;
 import com.interview.lender.entity.Loan;
 import com.interview.lender.enums.LoanStatus;
+import com.interview.lender.enums.OutboxStatus;
+import com.interview.lender.exception.ConcurrencyLimitExceededException;
+import com.interview.lender.exception.ExternalServiceException;
 import com.interview.lender.repository.CustomerRepository;
 import com.interview.lender.repository.LoanRepository;
+import com.interview.lender.repository.ScoringOutboxRepository;
 import com.interview.lender.services.CustomerService;
+import com.interview.lender.services.LoanClaimService;
 import com.interview.lender.services.LoanService;
 import com.interview.lender.services.ScoringService;
+import com.interview.lender.services.ScoringWorkerPool;
 import com.interview.lender.util.TestUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,10 +26,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -41,6 +48,12 @@ class LoanServiceTest {
     @Mock
     private ScoringService scoringService;
     @Mock
+    private ScoringWorkerPool scoringWorkerPool;
+    @Mock
+    private LoanClaimService loanClaimService;
+    @Mock
+    private ScoringOutboxRepository scoringOutboxRepository;
+    @Mock
     private AppConfig appConfig;
 
     @InjectMocks
@@ -110,15 +123,13 @@ class LoanServiceTest {
     void requestLoan_shouldReturnSuccessResponse_whenValidRequest() {
         when(customerRepository.findByCustomerNumber(TestUtil.TEST_CUSTOMER_NUMBER)).thenReturn(Optional.of(customer));
         when(loanRepository.save(any(Loan.class))).thenReturn(loan);
-        when(scoringService.initiateScoring(TestUtil.TEST_CUSTOMER_NUMBER)).thenReturn(TestUtil.TEST_SCORING_TOKEN);
-        when(customerRepository.save(any(Customer.class))).thenReturn(customer);
 
         var response = loanService.requestLoan(loanRequest);
 
         TestUtil.assertSuccessResponse(response);
         assertEquals("Loan application submitted successfully", response.getMessage());
-        verify(loanRepository, times(2)).save(any(Loan.class));
-        verify(scoringService).initiateScoring(TestUtil.TEST_CUSTOMER_NUMBER);
+        verify(loanRepository, times(1)).save(any(Loan.class));
+        verifyNoInteractions(scoringService);
     }
 
 
@@ -161,39 +172,191 @@ class LoanServiceTest {
 
 
     @Test
-    void processLoanScoring_shouldUpdateLoanToApproved_whenScoringIsSuccessful() {
+    void processLoanScoring_shouldRecordApprovedLoan_whenScoringIsSuccessful() {
         Loan scoringLoan = TestUtil.createScoringInProgressLoanEntity();
-        when(appConfig.getScoringRetryMaxAttempts()).thenReturn(5);
-        when(loanRepository.findLoansForScoring(5, PageRequest.of(0, 100))).thenReturn(List.of(scoringLoan));
+        when(loanClaimService.claimLoansForScoring(100)).thenReturn(List.of(scoringLoan));
         when(customerRepository.findByCustomerNumberIn(anyList())).thenReturn(List.of(customer));
         when(scoringService.getScore(TestUtil.TEST_SCORING_TOKEN)).thenReturn(Optional.of(scoringResponse));
-        when(loanRepository.save(any(Loan.class))).thenReturn(scoringLoan);
+        runScoringWorkersInline();
+
+        loanService.processLoanScoring(100);
+
+        verify(loanClaimService).recordScoringOutcomes(argThat(scoredLoans ->
+                scoredLoans.size() == 1 &&
+                scoredLoans.getFirst().getStatus() == LoanStatus.APPROVED &&
+                scoredLoans.getFirst().getCreditScore().equals(TestUtil.TEST_CREDIT_SCORE) &&
+                scoredLoans.getFirst().getClaimedBy() == null &&
+                scoredLoans.getFirst().getLeaseUntil() == null
+        ), eq(List.of()), eq(List.of()), eq(List.of()));
+        verify(loanRepository, never()).save(any(Loan.class));
+    }
 
-        loanService.processLoanScoring();
 
-        verify(loanRepository).save(argThat(savedLoan ->
-                savedLoan.getStatus() == LoanStatus.APPROVED &&
-                savedLoan.getCreditScore().equals(TestUtil.TEST_CREDIT_SCORE)
-        ));
+
+    @Test
+    void processLoanScoring_shouldRecordRetryBump_whenScoreNotReady() {
+        Loan scoringLoan = TestUtil.createScoringInProgressLoanEntity();
+        when(loanClaimService.claimLoansForScoring(100)).thenReturn(List.of(scoringLoan));
+        when(customerRepository.findByCustomerNumberIn(anyList())).thenReturn(List.of(customer));
+        when(scoringService.getScore(TestUtil.TEST_SCORING_TOKEN)).thenReturn(Optional.empty());
+        runScoringWorkersInline();
+
+        loanService.processLoanScoring(100);
+
+        verify(loanClaimService).recordScoringOutcomes(List.of(), List.of(scoringLoan.getId()), List.of(), List.of());
+        verify(loanRepository, never()).save(any(Loan.class));
     }
 
 
 
     @Test
-    void processLoanScoring_shouldUpdateLoanToFailed_whenMaxRetriesReached() {
+    void processLoanScoring_shouldRecordFailedLoan_whenScoringQueryThrows() {
         Loan scoringLoan = TestUtil.createScoringInProgressLoanEntity();
-        scoringLoan.setRetryCount(4);
-        when(appConfig.getScoringRetryMaxAttempts()).thenReturn(5);
-        when(loanRepository.findLoansForScoring(5, PageRequest.of(0, 100))).thenReturn(List.of(scoringLoan));
+        when(loanClaimService.claimLoansForScoring(100)).thenReturn(List.of(scoringLoan));
         when(customerRepository.findByCustomerNumberIn(anyList())).thenReturn(List.of(customer));
-        when(scoringService.getScore(TestUtil.TEST_SCORING_TOKEN)).thenReturn(Optional.empty());
-        when(loanRepository.save(any(Loan.class))).thenReturn(scoringLoan);
+        when(scoringService.getScore(TestUtil.TEST_SCORING_TOKEN)).thenThrow(new ExternalServiceException("Failed to get score: Circuit open for SCORING"));
+        runScoringWorkersInline();
+
+        loanService.processLoanScoring(100);
+
+        verify(loanClaimService).recordScoringOutcomes(List.of(), List.of(), List.of(scoringLoan.getId()), List.of());
+    }
+
+
+
+    @Test
+    void processLoanScoring_shouldDeferLoanWithoutSpendingRetry_whenConcurrencyLimitRejects() {
+        Loan scoringLoan = TestUtil.createScoringInProgressLoanEntity();
+        when(loanClaimService.claimLoansForScoring(100)).thenReturn(List.of(scoringLoan));
+        when(customerRepository.findByCustomerNumberIn(anyList())).thenReturn(List.of(customer));
+        when(scoringService.getScore(TestUtil.TEST_SCORING_TOKEN)).thenThrow(new ConcurrencyLimitExceededException("Scoring concurrency limit reached"));
+        runScoringWorkersInline();
+
+        loanService.processLoanScoring(100);
+
+        verify(loanClaimService).recordScoringOutcomes(List.of(), List.of(), List.of(), List.of(scoringLoan.getId()));
+    }
+
+
+
+    @Test
+    void processLoanScoring_shouldNotRecordOutcomes_whenNoLoansAreClaimed() {
+        when(loanClaimService.claimLoansForScoring(100)).thenReturn(List.of());
+
+        int processed = loanService.processLoanScoring(100);
+
+        assertEquals(0, processed);
+        verify(loanClaimService, never()).recordScoringOutcomes(anyList(), anyList(), anyList(), anyList());
+        verifyNoInteractions(scoringWorkerPool);
+    }
 
-        loanService.processLoanScoring();
 
-        verify(loanRepository).save(argThat(savedLoan ->
-                savedLoan.getRetryCount().equals(5) &&
-                savedLoan.getStatus() == LoanStatus.FAILED
+
+    @Test
+    void processLoanScoring_shouldDispatchLoansToWorkerPool() {
+        Loan scoringLoan = TestUtil.createScoringInProgressLoanEntity();
+        when(loanClaimService.claimLoansForScoring(100)).thenReturn(List.of(scoringLoan));
+        when(customerRepository.findByCustomerNumberIn(anyList())).thenReturn(List.of(customer));
+
+        loanService.processLoanScoring(100);
+
+        verify(scoringWorkerPool).processAll(eq(List.of(scoringLoan)), any());
+        verifyNoInteractions(scoringService);
+    }
+
+
+
+    @Test
+    void requestLoan_shouldQueueScoringInOutbox_insteadOfCallingScoringEngine() {
+        when(customerRepository.findByCustomerNumber(TestUtil.TEST_CUSTOMER_NUMBER)).thenReturn(Optional.of(customer));
+        when(loanRepository.save(any(Loan.class))).thenReturn(loan);
+
+        loanService.requestLoan(loanRequest);
+
+        verify(scoringOutboxRepository).save(argThat(entry ->
+                entry.getLoanId().equals(loan.getId()) &&
+                entry.getCustomerNumber().equals(TestUtil.TEST_CUSTOMER_NUMBER) &&
+                entry.getStatus() == OutboxStatus.PENDING &&
+                entry.getAttempts() == 0
         ));
+        assertEquals(LoanStatus.PENDING, loan.getStatus());
+        verifyNoInteractions(scoringService);
+    }
+
+
+
+    @Test
+    void applyScoringCallback_shouldApproveLoan_whenScoringLoanExistsForToken() {
+        Loan scoringLoan = TestUtil.createScoringInProgressLoanEntity();
+        scoringLoan.setClaimedBy("lms-node-1");
+        when(customerRepository.findByScoringToken(TestUtil.TEST_SCORING_TOKEN)).thenReturn(Optional.of(customer));
+        when(loanRepository.findOngoingLoanByCustomerNumber(TestUtil.TEST_CUSTOMER_NUMBER)).thenReturn(Optional.of(scoringLoan));
+
+        when(loanRepository.batchUpdateScoringOutcomes(eq(List.of(scoringLoan)), any())).thenReturn(1);
+
+        var response = loanService.applyScoringCallback(TestUtil.TEST_SCORING_TOKEN, scoringResponse);
+
+        TestUtil.assertSuccessResponse(response);
+        assertEquals(LoanStatus.APPROVED, scoringLoan.getStatus());
+        assertEquals(TestUtil.TEST_CREDIT_SCORE, scoringLoan.getCreditScore());
+        assertNull(scoringLoan.getClaimedBy());
+        verify(loanRepository).batchUpdateScoringOutcomes(eq(List.of(scoringLoan)), any());
+        verify(loanRepository, never()).save(any(Loan.class));
+        verifyNoInteractions(scoringService);
+    }
+
+
+
+    @Test
+    void applyScoringCallback_shouldReturnConflict_whenPollerResolvedLoanFirst() {
+        Loan scoringLoan = TestUtil.createScoringInProgressLoanEntity();
+        when(customerRepository.findByScoringToken(TestUtil.TEST_SCORING_TOKEN)).thenReturn(Optional.of(customer));
+        when(loanRepository.findOngoingLoanByCustomerNumber(TestUtil.TEST_CUSTOMER_NUMBER)).thenReturn(Optional.of(scoringLoan));
+        when(loanRepository.batchUpdateScoringOutcomes(eq(List.of(scoringLoan)), any())).thenReturn(0);
+
+        var response = loanService.applyScoringCallback(TestUtil.TEST_SCORING_TOKEN, scoringResponse);
+
+        TestUtil.assertFailureResponse(response);
+        assertEquals(HttpStatus.CONFLICT, response.getHttpStatus());
+        verify(loanRepository, never()).save(any(Loan.class));
+    }
+
+
+
+    @Test
+    void applyScoringCallback_shouldReturnNotFound_whenTokenIsUnknown() {
+        when(customerRepository.findByScoringToken(TestUtil.TEST_SCORING_TOKEN)).thenReturn(Optional.empty());
+
+        var response = loanService.applyScoringCallback(TestUtil.TEST_SCORING_TOKEN, scoringResponse);
+
+        TestUtil.assertFailureResponse(response);
+        assertEquals(HttpStatus.NOT_FOUND, response.getHttpStatus());
+        verify(loanRepository, never()).save(any(Loan.class));
+    }
+
+
+
+    @Test
+    void applyScoringCallback_shouldReturnConflict_whenLoanIsNotAwaitingScoring() {
+        when(customerRepository.findByScoringToken(TestUtil.TEST_SCORING_TOKEN)).thenReturn(Optional.of(customer));
+        when(loanRepository.findOngoingLoanByCustomerNumber(TestUtil.TEST_CUSTOMER_NUMBER)).thenReturn(Optional.of(loan));
+
+        var response = loanService.applyScoringCallback(TestUtil.TEST_SCORING_TOKEN, scoringResponse);
+
+        TestUtil.assertFailureResponse(response);
+        assertEquals(HttpStatus.CONFLICT, response.getHttpStatus());
+        verify(loanRepository, never()).save(any(Loan.class));
+    }
+
+
+
+    @SuppressWarnings("unchecked")
+    private void runScoringWorkersInline() {
+        doAnswer(invocation -> {
+            List<Loan> loans = invocation.getArgument(0);
+            Consumer<Loan> task = invocation.getArgument(1);
+            loans.forEach(task);
+            return null;
+        }).when(scoringWorkerPool).processAll(anyList(), any(Consumer.class));
     }
 }
@@ -0,0 +1,88 @@
+package com.interview.lender.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.lender.dto.CustomerSoapResponse;
+import com.interview.lender.dto.ScoringResponse;
+import com.interview.lender.dto.TransactionDto;
+import com.interview.lender.services.ObjectReaderRegistry;
+import com.interview.lender.util.TestUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectReaderRegistryTest {
+
+    private ObjectReaderRegistry objectReaderRegistry;
+
+
+
+    @BeforeEach
+    void setUp() {
+        objectReaderRegistry = new ObjectReaderRegistry(new ObjectMapper());
+    }
+
+
+
+    @Test
+    void warmUp_shouldNotThrow() {
+        assertDoesNotThrow(() -> objectReaderRegistry.warmUp());
+    }
+
+
+
+    @Test
+    void customerSoapResponse_shouldBindCustomerWithJavaTimeFields() throws Exception {
+        CustomerSoapResponse response = objectReaderRegistry.customerSoapResponse().readValue(TestUtil.MOCK_KYC_XML_RESPONSE);
+
+        assertTrue(response.getCustomer().isPresent());
+        assertEquals(TestUtil.TEST_CUSTOMER_NUMBER, response.getCustomer().get().getCustomerNumber());
+        assertEquals(LocalDateTime.of(1970, 6, 25, 0, 0), response.getCustomer().get().getDob());
+    }
+
+
+
+    @Test
+    void readTransaction_shouldBindElementUnderCursor() throws Exception {
+        XMLStreamReader reader = XMLInputFactory.newFactory()
+                .createXMLStreamReader(new StringReader(TestUtil.MOCK_TRANSACTION_XML_RESPONSE_WITH_TRANSACTIONS));
+        while (!(reader.next() == XMLStreamConstants.START_ELEMENT && "transactions".equals(reader.getLocalName()))) {
+            // advance to the first record
+        }
+
+        TransactionDto transaction = objectReaderRegistry.readTransaction(reader);
+
+        assertEquals("1000000001", transaction.getAccountNumber());
+        assertEquals(XMLStreamConstants.END_ELEMENT, reader.getEventType());
+    }
+
+
+
+    @Test
+    void transactionList_shouldBindJsonArray() throws Exception {
+        List<TransactionDto> transactions = objectReaderRegistry.transactionList().readValue(TestUtil.MOCK_TRANSACTIONS_JSON_RESPONSE);
+
+        assertFalse(transactions.isEmpty());
+        assertEquals("332216783322167555621628", transactions.getFirst().getAccountNumber());
+    }
+
+
+
+    @Test
+    void json_shouldReuseReaderPerType() throws Exception {
+        assertSame(objectReaderRegistry.json(ScoringResponse.class), objectReaderRegistry.json(ScoringResponse.class));
+
+        ScoringResponse response = objectReaderRegistry.json(ScoringResponse.class)
+                .readValue("{\"score\":700,\"limitAmount\":5000,\"exclusion\":\"No Exclusion\"}");
+        assertEquals(700, response.getScore());
+        assertEquals(new BigDecimal("5000"), response.getLimitAmount());
+    }
+}
@@ -1,23 +1,49 @@
 package com.interview.lender.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.dto.ScoringResponse;
+import com.interview.lender.enums.Downstream;
+import com.interview.lender.exception.DeadlineExceededException;
+import com.interview.lender.resilience.Bulkhead;
+import com.interview.lender.resilience.CircuitBreaker;
+import com.interview.lender.resilience.Deadline;
+import com.interview.lender.resilience.DownstreamGuard;
+import com.interview.lender.resilience.DownstreamResilienceRegistry;
+import com.interview.lender.services.ObjectReaderRegistry;
 import com.interview.lender.services.RestClientService;
 import com.interview.lender.util.TestUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -26,8 +52,14 @@ class RestClientServiceTest {
 
     @Mock
     private RestTemplate restTemplate;
+    @Mock
+    private HttpClient asyncHttpClient;
+    @Mock
+    private AppConfig appConfig;
+    @Mock
+    private DownstreamResilienceRegistry downstreamResilienceRegistry;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
     private RestClientService restClientService;
 
     private HttpHeaders headers;
@@ -39,6 +71,10 @@ class RestClientServiceTest {
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        restClientService = new RestClientService(restTemplate, asyncHttpClient, new ObjectMapper(), appConfig, downstreamResilienceRegistry, meterRegistry,
+                new ObjectReaderRegistry(new ObjectMapper()));
+        lenient().when(downstreamResilienceRegistry.resolve(anyString())).thenReturn(Downstream.OTHER);
         headers = TestUtil.createTestHeaders();
         requestPayload = "{\"test\": \"data\"}";
         responseBody = "{\"result\": \"success\"}";
@@ -47,6 +83,13 @@ class RestClientServiceTest {
 
 
 
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+    }
+
+
+
     @Test
     void sendRequest_shouldReturnSuccessResult_whenPostRequestSucceeds() {
         when(restTemplate.postForEntity(eq(TestUtil.TEST_URL), any(HttpEntity.class), eq(String.class)))
@@ -69,6 +112,7 @@ class RestClientServiceTest {
 
         TestUtil.assertHttpResultSuccess(result);
         assertEquals(responseBody, result.getMessage());
+        assertTrue(result.getLatencyNanos() > 0);
     }
 
 
@@ -158,4 +202,289 @@ class RestClientServiceTest {
 
         assertTrue(result.isSuccess());
     }
+
+
+
+    @Test
+    void sendRequestAsync_shouldReturnSuccessResult_whenResponseIs2xx() {
+        stubAsyncResponse(200, responseBody);
+
+        var result = restClientService.sendRequestAsync(TestUtil.TEST_URL, HttpMethod.GET, headers, null, String.class).join();
+
+        TestUtil.assertHttpResultSuccess(result);
+        assertEquals(responseBody, result.getMessage());
+    }
+
+
+
+    @Test
+    void sendRequestAsync_shouldDeserializeBody_whenResponseClassIsNotString() {
+        stubAsyncResponse(200, "{\"score\": 650, \"limitAmount\": 50000, \"exclusion\": \"No Exclusion\"}");
+
+        var result = restClientService.sendRequestAsync(TestUtil.TEST_URL, HttpMethod.GET, headers, null, ScoringResponse.class).join();
+
+        TestUtil.assertHttpResultSuccess(result);
+        ScoringResponse scoringResponse = assertInstanceOf(ScoringResponse.class, result.getMessage());
+        assertEquals(650, scoringResponse.getScore());
+    }
+
+
+
+    @Test
+    void sendRequestAsync_shouldKeepStatusCode_whenResponseIs4xx() {
+        stubAsyncResponse(404, "Not Found");
+
+        var result = restClientService.sendRequestAsync(TestUtil.TEST_URL, HttpMethod.GET, headers, null, String.class).join();
+
+        TestUtil.assertHttpResultFailure(result, 404);
+        assertEquals("Not Found", result.getError());
+    }
+
+
+
+    @Test
+    void sendRequestAsync_shouldMapToInternalServerError_whenResponseIs5xx() {
+        stubAsyncResponse(503, "Service Unavailable");
+
+        var result = restClientService.sendRequestAsync(TestUtil.TEST_URL, HttpMethod.GET, headers, null, String.class).join();
+
+        TestUtil.assertHttpResultFailure(result, 500);
+        assertEquals("503 Service Unavailable", result.getError());
+    }
+
+
+
+    @Test
+    void sendRequestAsync_shouldReturnFailureResult_whenRequestFails() {
+        when(appConfig.getHttpClientReadTimeoutMillis()).thenReturn(30000L);
+        when(asyncHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("Connection refused")));
+
+        var result = restClientService.sendRequestAsync(TestUtil.TEST_URL, HttpMethod.GET, headers, null, String.class).join();
+
+        TestUtil.assertHttpResultFailure(result, 500);
+        assertEquals("Connection refused", result.getError());
+    }
+
+
+
+    @Test
+    void sendRequestAsync_shouldPostPayloadAndDropRestrictedHeaders_whenHttpMethodIsNull() {
+        stubAsyncResponse(200, responseBody);
+        headers.set(HttpHeaders.HOST, "api.example.com");
+
+        restClientService.sendRequestAsync(TestUtil.TEST_URL, null, headers, requestPayload, String.class).join();
+
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(asyncHttpClient).sendAsync(requestCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        HttpRequest request = requestCaptor.getValue();
+        assertEquals("POST", request.method());
+        assertTrue(request.headers().firstValue(HttpHeaders.HOST).isEmpty());
+        assertEquals((long) requestPayload.length(), request.bodyPublisher().orElseThrow().contentLength());
+    }
+
+
+
+    @Test
+    void sendRequestAsync_shouldSendByteArrayPayloadAsIs() {
+        stubAsyncResponse(200, responseBody);
+        byte[] envelope = "<soapenv:Envelope/>".getBytes(StandardCharsets.UTF_8);
+
+        restClientService.sendRequestAsync(TestUtil.TEST_URL, null, headers, envelope, String.class).join();
+
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(asyncHttpClient).sendAsync(requestCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals((long) envelope.length, requestCaptor.getValue().bodyPublisher().orElseThrow().contentLength());
+    }
+
+
+
+    @Test
+    void sendRequest_shouldFailFastWithoutCallingDownstream_whenCircuitIsOpen() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("scoring", 50, 1, 1, 60000, 1);
+        circuitBreaker.onFailure();
+        when(downstreamResilienceRegistry.resolve(TestUtil.TEST_URL)).thenReturn(Downstream.SCORING);
+        when(downstreamResilienceRegistry.guardFor(Downstream.SCORING))
+                .thenReturn(Optional.of(DownstreamGuard.builder()
+                        .downstream(Downstream.SCORING)
+                        .circuitBreaker(circuitBreaker)
+                        .bulkhead(new Bulkhead(1))
+                        .build()));
+
+        var result = restClientService.sendRequest(TestUtil.TEST_URL, HttpMethod.GET, headers, null, String.class);
+
+        TestUtil.assertHttpResultFailure(result, 503);
+        assertEquals(0, result.getLatencyNanos());
+        verifyNoInteractions(restTemplate);
+    }
+
+
+
+    @Test
+    void sendRequest_shouldRecordLatencyTimer_taggedByDownstreamMethodAndStatus() {
+        when(downstreamResilienceRegistry.resolve(TestUtil.TEST_URL)).thenReturn(Downstream.KYC);
+        when(restTemplate.postForEntity(eq(TestUtil.TEST_URL), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(successResponseEntity);
+
+        restClientService.sendRequest(TestUtil.TEST_URL, null, headers, requestPayload, String.class);
+
+        var timer = meterRegistry.get("lender.http.client.requests")
+                .tags("downstream", "kyc", "method", "POST", "status", "200", "outcome", "SUCCESS")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+
+
+    @Test
+    void sendRequest_shouldCountErrorsByExceptionType() {
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND))
+                .thenThrow(new RestClientException("Connection refused"));
+
+        restClientService.sendRequest(TestUtil.TEST_URL, HttpMethod.GET, headers, null, String.class);
+        restClientService.sendRequest(TestUtil.TEST_URL, HttpMethod.GET, headers, null, String.class);
+
+        assertEquals(1, meterRegistry.get("lender.http.client.errors").tag("exception", "HttpClientErrorException").counter().count());
+        assertEquals(1, meterRegistry.get("lender.http.client.errors").tag("exception", "RestClientException").counter().count());
+        assertEquals(1, meterRegistry.get("lender.http.client.requests").tags("status", "404", "outcome", "CLIENT_ERROR").timer().count());
+        assertEquals(1, meterRegistry.get("lender.http.client.requests").tags("status", "IO_ERROR", "outcome", "UNKNOWN").timer().count());
+    }
+
+
+
+    @Test
+    void sendRequestAsync_shouldRecordIoErrorTimer_whenRequestFails() {
+        when(appConfig.getHttpClientReadTimeoutMillis()).thenReturn(30000L);
+        when(asyncHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("Connection refused")));
+
+        restClientService.sendRequestAsync(TestUtil.TEST_URL, HttpMethod.GET, headers, null, String.class).join();
+
+        assertEquals(1, meterRegistry.get("lender.http.client.requests").tags("downstream", "other", "status", "IO_ERROR").timer().count());
+        assertEquals(1, meterRegistry.get("lender.http.client.errors").tag("exception", "IOException").counter().count());
+    }
+
+
+
+    @Test
+    void sendRequestAsync_shouldCountErrorsLikeSyncPath_whenResponseIsNot2xx() {
+        stubAsyncResponse(404, "missing");
+        restClientService.sendRequestAsync(TestUtil.TEST_URL, HttpMethod.GET, headers, null, String.class).join();
+        stubAsyncResponse(503, "unavailable");
+        restClientService.sendRequestAsync(TestUtil.TEST_URL, HttpMethod.GET, headers, null, String.class).join();
+
+        assertEquals(1, meterRegistry.get("lender.http.client.errors").tag("exception", "HttpClientErrorException").counter().count());
+        assertEquals(1, meterRegistry.get("lender.http.client.errors").tag("exception", "HttpServerErrorException").counter().count());
+    }
+
+
+
+    @Test
+    void sendRequest_shouldSkipCall_whenDeadlineHasPassed() {
+        Deadline.set(Deadline.afterMillis(0));
+
+        assertThrows(DeadlineExceededException.class,
+                () -> restClientService.sendRequest(TestUtil.TEST_URL, HttpMethod.GET, headers, null, String.class));
+
+        verifyNoInteractions(restTemplate);
+    }
+
+
+
+    @Test
+    void sendRequestAsync_shouldFailWithoutSending_whenDeadlineHasPassed() {
+        Deadline.set(Deadline.afterMillis(0));
+
+        var future = restClientService.sendRequestAsync(TestUtil.TEST_URL, HttpMethod.GET, headers, null, String.class);
+
+        var exception = assertThrows(java.util.concurrent.CompletionException.class, future::join);
+        assertInstanceOf(DeadlineExceededException.class, exception.getCause());
+        verifyNoInteractions(asyncHttpClient);
+    }
+
+
+
+    @Test
+    void sendRequestAsync_shouldShrinkTimeoutToRemainingBudget() {
+        stubAsyncResponse(200, responseBody);
+        Deadline.set(Deadline.afterMillis(2000));
+
+        restClientService.sendRequestAsync(TestUtil.TEST_URL, HttpMethod.GET, headers, null, String.class).join();
+
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(asyncHttpClient).sendAsync(requestCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        assertTrue(requestCaptor.getValue().timeout().orElseThrow().toMillis() <= 2000);
+    }
+
+
+
+    @Test
+    void sendRequestStreaming_shouldHandResponseStreamToReader_whenRequestSucceeds() throws IOException {
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+        when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+        when(response.getHeaders()).thenReturn(new HttpHeaders());
+        when(response.getBody()).thenReturn(new ByteArrayInputStream(responseBody.getBytes(StandardCharsets.UTF_8)));
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.POST), any(), any()))
+                .thenAnswer(invocation -> invocation.<ResponseExtractor<?>>getArgument(3).extractData(response));
+
+        var result = restClientService.sendRequestStreaming(TestUtil.TEST_URL, null, headers, requestPayload,
+                body -> new String(body.readAllBytes(), StandardCharsets.UTF_8).length());
+
+        TestUtil.assertHttpResultSuccess(result);
+        assertEquals(responseBody.length(), result.getMessage());
+        assertEquals(1, meterRegistry.get("lender.http.client.requests").tags("status", "200", "outcome", "SUCCESS").timer().count());
+    }
+
+
+
+    @Test
+    void sendRequestStreaming_shouldReturnFailureResult_whenHttpClientErrorExceptionOccurs() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.POST), any(), any()))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND, "Not Found", "missing".getBytes(), null));
+
+        var result = restClientService.sendRequestStreaming(TestUtil.TEST_URL, null, headers, requestPayload, body -> fail("reader must not run"));
+
+        TestUtil.assertHttpResultFailure(result, 404);
+        assertEquals("missing", result.getError());
+    }
+
+
+
+    @Test
+    void sendRequestStreamingAsync_shouldHandResponseStreamToReader() {
+        stubAsyncResponse(200, responseBody);
+
+        var result = restClientService.sendRequestStreamingAsync(TestUtil.TEST_URL, HttpMethod.GET, headers, null,
+                body -> new String(body.readAllBytes(), StandardCharsets.UTF_8).toUpperCase()).join();
+
+        TestUtil.assertHttpResultSuccess(result);
+        assertEquals(responseBody.toUpperCase(), result.getMessage());
+    }
+
+
+
+    @Test
+    void sendRequestStreamingAsync_shouldReturnFailureResult_whenReaderFails() {
+        stubAsyncResponse(200, responseBody);
+
+        var result = restClientService.sendRequestStreamingAsync(TestUtil.TEST_URL, HttpMethod.GET, headers, null,
+                body -> { throw new IOException("Stream reset"); }).join();
+
+        TestUtil.assertHttpResultFailure(result, 500);
+        assertEquals("Stream reset", result.getError());
+    }
+
+
+
+    @SuppressWarnings("unchecked")
+    private void stubAsyncResponse(int statusCode, String body) {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(statusCode);
+        when(response.body()).thenReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        when(response.headers()).thenReturn(java.net.http.HttpHeaders.of(Map.of("Content-Type", List.of("application/json")), (name, value) -> true));
+        when(appConfig.getHttpClientReadTimeoutMillis()).thenReturn(30000L);
+        when(asyncHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+    }
 }
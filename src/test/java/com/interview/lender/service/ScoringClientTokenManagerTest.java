@@ -0,0 +1,196 @@
+package com.interview.lender.service;
+
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.dto.ClientRegistrationRequest;
+import com.interview.lender.dto.ClientRegistrationResponse;
+import com.interview.lender.dto.HttpResultDto;
+import com.interview.lender.exception.ExternalServiceException;
+import com.interview.lender.services.RestClientService;
+import com.interview.lender.services.ScoringClientTokenManager;
+import com.interview.lender.util.TestUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ScoringClientTokenManagerTest {
+
+    @Mock
+    private AppConfig appConfig;
+    @Mock
+    private RestClientService restClientService;
+
+    @InjectMocks
+    private ScoringClientTokenManager tokenManager;
+
+    private HttpResultDto registrationSuccessResult;
+    private HttpResultDto failureResult;
+
+
+
+    @BeforeEach
+    void setUp() {
+        when(appConfig.getScoringBaseUrl()).thenReturn("https://scoringdevtest.credable.io");
+        when(appConfig.getScoringClientCreatePath()).thenReturn("/createClient");
+        when(appConfig.getTransactionsUrl()).thenReturn("http://localhost:8080/api/v1/transaction-data");
+        when(appConfig.getTransactionApiServiceName()).thenReturn("LMS Transaction Service");
+        when(appConfig.getTransactionApiPassword()).thenReturn("lms_pass_123");
+        when(appConfig.getScoringClientTokenTtlSeconds()).thenReturn(3600L);
+        when(appConfig.getScoringClientTokenRefreshAheadSeconds()).thenReturn(300L);
+
+        registrationSuccessResult = TestUtil.createSuccessHttpResult(TestUtil.createClientRegistrationResponse());
+        failureResult = TestUtil.createFailureHttpResult(500, "Internal Server Error");
+    }
+
+
+
+    @Test
+    void init_shouldCallRegisterClient_whenPostConstructExecutes() {
+        stubClientRegistration(registrationSuccessResult);
+
+        tokenManager.init();
+
+        verify(restClientService).sendRequest(
+                contains("createClient"),
+                eq(HttpMethod.POST),
+                any(HttpHeaders.class),
+                any(ClientRegistrationRequest.class),
+                eq(ClientRegistrationResponse.class)
+        );
+    }
+
+
+
+    @Test
+    void registerClient_shouldThrowException_whenRegistrationFails() {
+        stubClientRegistration(failureResult);
+
+        var exception = assertThrows(ExternalServiceException.class, () -> tokenManager.registerClient());
+
+        assertEquals("Failed to register client: Internal Server Error", exception.getMessage());
+    }
+
+
+
+    @Test
+    void getToken_shouldReuseToken_whileItIsFresh() {
+        stubClientRegistration(registrationSuccessResult);
+
+        assertEquals(TestUtil.TEST_CLIENT_TOKEN, tokenManager.getToken());
+        assertEquals(TestUtil.TEST_CLIENT_TOKEN, tokenManager.getToken());
+
+        verifyRegistrations(1);
+    }
+
+
+
+    @Test
+    void getToken_shouldRegisterOnlyOnce_whenManyWorkersAskConcurrently() throws Exception {
+        CountDownLatch registrationStarted = new CountDownLatch(1);
+        when(restClientService.sendRequest(anyString(), eq(HttpMethod.POST), any(HttpHeaders.class), any(ClientRegistrationRequest.class), eq(ClientRegistrationResponse.class)))
+                .thenAnswer(invocation -> {
+                    registrationStarted.countDown();
+                    Thread.sleep(200);
+                    return registrationSuccessResult;
+                });
+
+        List<Future<String>> tokens = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 16; i++) {
+                tokens.add(executor.submit(tokenManager::getToken));
+            }
+            for (Future<String> token : tokens) {
+                assertEquals(TestUtil.TEST_CLIENT_TOKEN, token.get());
+            }
+        }
+
+        verifyRegistrations(1);
+    }
+
+
+
+    @Test
+    void getToken_shouldRefreshAhead_whenTokenIsCloseToExpiry() {
+        when(appConfig.getScoringClientTokenRefreshAheadSeconds()).thenReturn(3600L);
+        stubClientRegistration(registrationSuccessResult);
+        tokenManager.registerClient();
+
+        tokenManager.getToken();
+
+        verifyRegistrations(2);
+    }
+
+
+
+    @Test
+    void getToken_shouldKeepCurrentToken_whenRefreshAheadFails() {
+        when(appConfig.getScoringClientTokenRefreshAheadSeconds()).thenReturn(3600L);
+        stubClientRegistration(registrationSuccessResult);
+        tokenManager.registerClient();
+        stubClientRegistration(failureResult);
+
+        assertEquals(TestUtil.TEST_CLIENT_TOKEN, tokenManager.getToken());
+        assertEquals(TestUtil.TEST_CLIENT_TOKEN, tokenManager.getToken());
+
+        verifyRegistrations(2);
+    }
+
+
+
+    @Test
+    void invalidate_shouldForceReRegistration_whenTokenIsRejected() {
+        stubClientRegistration(registrationSuccessResult);
+        tokenManager.getToken();
+
+        tokenManager.invalidate(TestUtil.TEST_CLIENT_TOKEN);
+        tokenManager.getToken();
+
+        verifyRegistrations(2);
+    }
+
+
+
+    @Test
+    void invalidate_shouldIgnoreStaleToken_whenAlreadyReplaced() {
+        stubClientRegistration(registrationSuccessResult);
+        tokenManager.getToken();
+
+        tokenManager.invalidate("an-older-token");
+        tokenManager.getToken();
+
+        verifyRegistrations(1);
+    }
+
+
+
+    private void stubClientRegistration(HttpResultDto result) {
+        when(restClientService.sendRequest(anyString(), eq(HttpMethod.POST), any(HttpHeaders.class), any(ClientRegistrationRequest.class), eq(ClientRegistrationResponse.class)))
+                .thenReturn(result);
+    }
+
+
+
+    private void verifyRegistrations(int times) {
+        verify(restClientService, times(times)).sendRequest(anyString(), eq(HttpMethod.POST), any(HttpHeaders.class),
+                any(ClientRegistrationRequest.class), eq(ClientRegistrationResponse.class));
+    }
+}
@@ -0,0 +1,117 @@
+package com.interview.lender.service;
+
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.entity.ScoringOutbox;
+import com.interview.lender.exception.ConcurrencyLimitExceededException;
+import com.interview.lender.exception.ExternalServiceException;
+import com.interview.lender.services.ScoringOutboxDispatcher;
+import com.interview.lender.services.ScoringOutboxService;
+import com.interview.lender.services.ScoringService;
+import com.interview.lender.services.ScoringWorkerPool;
+import com.interview.lender.util.TestUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScoringOutboxDispatcherTest {
+
+    @Mock
+    private ScoringOutboxService scoringOutboxService;
+    @Mock
+    private ScoringService scoringService;
+    @Mock
+    private ScoringWorkerPool scoringWorkerPool;
+    @Mock
+    private AppConfig appConfig;
+
+    @InjectMocks
+    private ScoringOutboxDispatcher scoringOutboxDispatcher;
+
+    private ScoringOutbox entry;
+
+
+
+    @BeforeEach
+    void setUp() {
+        entry = TestUtil.createScoringOutboxEntry();
+        when(appConfig.getScoringOutboxBatchSize()).thenReturn(50);
+    }
+
+
+
+    @Test
+    void dispatchDueEntries_shouldMarkDispatched_whenScoringIsInitiated() {
+        when(scoringOutboxService.claimDueEntries(50)).thenReturn(List.of(entry));
+        when(scoringService.initiateScoring(TestUtil.TEST_CUSTOMER_NUMBER)).thenReturn(TestUtil.TEST_SCORING_TOKEN);
+        runWorkersInline();
+
+        int dispatched = scoringOutboxDispatcher.dispatchDueEntries();
+
+        assertEquals(1, dispatched);
+        verify(scoringOutboxService).markDispatched(entry, TestUtil.TEST_SCORING_TOKEN);
+        verify(scoringOutboxService, never()).markAttemptFailed(any(), any());
+    }
+
+
+
+    @Test
+    void dispatchDueEntries_shouldRecordFailedAttempt_whenScoringEngineFails() {
+        when(scoringOutboxService.claimDueEntries(50)).thenReturn(List.of(entry));
+        when(scoringService.initiateScoring(TestUtil.TEST_CUSTOMER_NUMBER)).thenThrow(new ExternalServiceException("Failed to initiate scoring"));
+        runWorkersInline();
+
+        scoringOutboxDispatcher.dispatchDueEntries();
+
+        verify(scoringOutboxService).markAttemptFailed(entry, "Failed to initiate scoring");
+        verify(scoringOutboxService, never()).markDispatched(any(), any());
+    }
+
+
+
+    @Test
+    void dispatchDueEntries_shouldDeferWithoutSpendingAttempt_whenConcurrencyLimitRejects() {
+        when(scoringOutboxService.claimDueEntries(50)).thenReturn(List.of(entry));
+        when(scoringService.initiateScoring(TestUtil.TEST_CUSTOMER_NUMBER)).thenThrow(new ConcurrencyLimitExceededException("Scoring concurrency limit reached"));
+        runWorkersInline();
+
+        scoringOutboxDispatcher.dispatchDueEntries();
+
+        verify(scoringOutboxService).markDeferred(entry);
+        verify(scoringOutboxService, never()).markAttemptFailed(any(), any());
+    }
+
+
+
+    @Test
+    void dispatchDueEntries_shouldDoNothing_whenNoEntriesAreDue() {
+        when(scoringOutboxService.claimDueEntries(50)).thenReturn(List.of());
+
+        int dispatched = scoringOutboxDispatcher.dispatchDueEntries();
+
+        assertEquals(0, dispatched);
+        verifyNoInteractions(scoringService, scoringWorkerPool);
+    }
+
+
+
+    @SuppressWarnings("unchecked")
+    private void runWorkersInline() {
+        doAnswer(invocation -> {
+            List<ScoringOutbox> entries = invocation.getArgument(0);
+            Consumer<ScoringOutbox> task = invocation.getArgument(1);
+            entries.forEach(task);
+            return null;
+        }).when(scoringWorkerPool).processAll(anyList(), any(Consumer.class));
+    }
+}
@@ -0,0 +1,157 @@
+package com.interview.lender.service;
+
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.entity.Customer;
+import com.interview.lender.entity.Loan;
+import com.interview.lender.entity.ScoringOutbox;
+import com.interview.lender.enums.LoanStatus;
+import com.interview.lender.enums.OutboxStatus;
+import com.interview.lender.repository.CustomerRepository;
+import com.interview.lender.repository.LoanRepository;
+import com.interview.lender.repository.ScoringOutboxRepository;
+import com.interview.lender.services.ScoringOutboxService;
+import com.interview.lender.util.TestUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScoringOutboxServiceTest {
+
+    @Mock
+    private ScoringOutboxRepository scoringOutboxRepository;
+    @Mock
+    private LoanRepository loanRepository;
+    @Mock
+    private CustomerRepository customerRepository;
+    @Mock
+    private AppConfig appConfig;
+
+    @InjectMocks
+    private ScoringOutboxService scoringOutboxService;
+
+    private ScoringOutbox entry;
+    private Loan loan;
+    private Customer customer;
+
+
+
+    @BeforeEach
+    void setUp() {
+        entry = TestUtil.createScoringOutboxEntry();
+        loan = TestUtil.createLoanEntity();
+        customer = TestUtil.createCustomerEntity();
+    }
+
+
+
+    @Test
+    void claimDueEntries_shouldStampLeaseOnClaimedEntries() {
+        when(appConfig.getScoringNodeId()).thenReturn("lms-node-1");
+        when(appConfig.getScoringLeaseSeconds()).thenReturn(120);
+        when(scoringOutboxRepository.findDueEntries(any(LocalDateTime.class), any())).thenReturn(List.of(entry));
+        when(scoringOutboxRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        var claimed = scoringOutboxService.claimDueEntries(50);
+
+        assertEquals(1, claimed.size());
+        assertEquals("lms-node-1", claimed.getFirst().getClaimedBy());
+        assertNotNull(claimed.getFirst().getLeaseUntil());
+    }
+
+
+
+    @Test
+    void markDispatched_shouldMoveLoanToScoringAndStoreToken() {
+        when(loanRepository.findById(entry.getLoanId())).thenReturn(Optional.of(loan));
+        when(customerRepository.findByCustomerNumber(TestUtil.TEST_CUSTOMER_NUMBER)).thenReturn(Optional.of(customer));
+
+        scoringOutboxService.markDispatched(entry, TestUtil.TEST_SCORING_TOKEN);
+
+        assertEquals(LoanStatus.SCORING_IN_PROGRESS, loan.getStatus());
+        assertEquals(TestUtil.TEST_SCORING_TOKEN, customer.getScoringToken());
+        assertEquals(OutboxStatus.DISPATCHED, entry.getStatus());
+        assertNotNull(entry.getDispatchedAt());
+        assertNull(entry.getClaimedBy());
+        verify(loanRepository).save(loan);
+        verify(scoringOutboxRepository).save(entry);
+    }
+
+
+
+    @Test
+    void markDispatched_shouldDeferFirstPoll_whenScoringCallbackIsEnabled() {
+        when(appConfig.isScoringCallbackEnabled()).thenReturn(true);
+        when(appConfig.getScoringReconciliationDelaySeconds()).thenReturn(300);
+        when(loanRepository.findById(entry.getLoanId())).thenReturn(Optional.of(loan));
+
+        LocalDateTime before = LocalDateTime.now();
+        scoringOutboxService.markDispatched(entry, TestUtil.TEST_SCORING_TOKEN);
+
+        assertTrue(loan.getNextAttemptAt().isAfter(before.plusSeconds(299)));
+    }
+
+
+
+    @Test
+    void markAttemptFailed_shouldScheduleRetryWithBackoff_whenAttemptsRemain() {
+        when(appConfig.getScoringOutboxMaxAttempts()).thenReturn(5);
+        when(appConfig.getScoringOutboxRetryDelaySeconds()).thenReturn(5);
+        when(appConfig.getScoringOutboxRetryMaxDelaySeconds()).thenReturn(300);
+
+        LocalDateTime before = LocalDateTime.now();
+        scoringOutboxService.markAttemptFailed(entry, "Connection refused");
+
+        assertEquals(1, entry.getAttempts());
+        assertEquals(OutboxStatus.PENDING, entry.getStatus());
+        assertEquals("Connection refused", entry.getLastError());
+        assertFalse(entry.getNextAttemptAt().isBefore(before.plusMillis(2500)));
+        verify(scoringOutboxRepository).save(entry);
+        verifyNoInteractions(loanRepository);
+    }
+
+
+
+    @Test
+    void markDeferred_shouldRescheduleWithoutSpendingAttempt() {
+        when(appConfig.getScoringOutboxRetryDelaySeconds()).thenReturn(5);
+        when(appConfig.getScoringOutboxRetryMaxDelaySeconds()).thenReturn(300);
+
+        LocalDateTime before = LocalDateTime.now();
+        scoringOutboxService.markDeferred(entry);
+
+        assertEquals(0, entry.getAttempts());
+        assertEquals(OutboxStatus.PENDING, entry.getStatus());
+        assertNull(entry.getClaimedBy());
+        assertFalse(entry.getNextAttemptAt().isBefore(before.plusMillis(2500)));
+        verify(scoringOutboxRepository).save(entry);
+        verifyNoInteractions(loanRepository);
+    }
+
+
+
+    @Test
+    void markAttemptFailed_shouldFailEntryAndLoan_whenMaxAttemptsReached() {
+        entry.setAttempts(4);
+        when(appConfig.getScoringOutboxMaxAttempts()).thenReturn(5);
+        when(loanRepository.findById(entry.getLoanId())).thenReturn(Optional.of(loan));
+
+        scoringOutboxService.markAttemptFailed(entry, "Connection refused");
+
+        assertEquals(OutboxStatus.FAILED, entry.getStatus());
+        assertEquals(LoanStatus.FAILED, loan.getStatus());
+        verify(loanRepository).save(loan);
+        verify(scoringOutboxRepository).save(entry);
+    }
+}
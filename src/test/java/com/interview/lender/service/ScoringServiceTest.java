@@ -1,12 +1,13 @@
 package com.interview.lender.service;
 
 import com.interview.lender.config.AppConfig;
-import com.interview.lender.dto.ClientRegistrationRequest;
-import com.interview.lender.dto.ClientRegistrationResponse;
 import com.interview.lender.dto.HttpResultDto;
 import com.interview.lender.dto.ScoringResponse;
+import com.interview.lender.exception.ConcurrencyLimitExceededException;
 import com.interview.lender.exception.ExternalServiceException;
+import com.interview.lender.resilience.AdaptiveConcurrencyLimiter;
 import com.interview.lender.services.RestClientService;
+import com.interview.lender.services.ScoringClientTokenManager;
 import com.interview.lender.services.ScoringService;
 import com.interview.lender.util.TestUtil;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,10 +22,13 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -34,6 +38,10 @@ class ScoringServiceTest {
     private AppConfig appConfig;
     @Mock
     private RestClientService restClientService;
+    @Mock
+    private ScoringClientTokenManager scoringClientTokenManager;
+    @Mock
+    private AdaptiveConcurrencyLimiter scoringConcurrencyLimiter;
 
     @InjectMocks
     private ScoringService scoringService;
@@ -41,67 +49,24 @@ class ScoringServiceTest {
     private HttpResultDto successResult;
     private HttpResultDto failureResult;
     private ScoringResponse scoringResponse;
-    private HttpResultDto registrationSuccessResult;
 
 
 
     @BeforeEach
     void setUp() {
         when(appConfig.getScoringBaseUrl()).thenReturn("https://scoringdevtest.credable.ionull");
-        when(appConfig.getTransactionsUrl()).thenReturn("http://localhost:8080/api/v1/transaction-data");
-        when(appConfig.getTransactionApiServiceName()).thenReturn("LMS Transaction Service");
-        when(appConfig.getTransactionApiPassword()).thenReturn("lms_pass_123");
-
-        when(appConfig.getScoringClientCreatePath()).thenReturn("/createClient");
+        when(scoringClientTokenManager.getToken()).thenReturn(TestUtil.TEST_CLIENT_TOKEN);
+        when(scoringConcurrencyLimiter.tryAcquire(anyLong())).thenReturn(true);
 
         successResult = TestUtil.createSuccessHttpResult(TestUtil.TEST_SCORING_TOKEN);
         failureResult = TestUtil.createFailureHttpResult(500, "Internal Server Error");
         scoringResponse = TestUtil.createScoringResponse();
-
-        ClientRegistrationResponse clientRegistrationResponse = TestUtil.createClientRegistrationResponse();
-        registrationSuccessResult = TestUtil.createSuccessHttpResult(clientRegistrationResponse);
-    }
-
-
-
-    private void stubClientRegistration() {
-        when(restClientService.sendRequest(
-                anyString(),
-                eq(HttpMethod.POST),
-                any(HttpHeaders.class),
-                any(ClientRegistrationRequest.class),
-                eq(ClientRegistrationResponse.class)))
-                .thenReturn(registrationSuccessResult);
-    }
-
-
-
-    @Test
-    void init_shouldCallRegisterClient_whenPostConstructExecutes() {
-        var clientResponse = TestUtil.createClientRegistrationResponse();
-        HttpResultDto result = TestUtil.createSuccessHttpResult(clientResponse);
-
-        when(restClientService.sendRequest(anyString(), eq(HttpMethod.POST), any(HttpHeaders.class),
-                any(ClientRegistrationRequest.class), eq(com.interview.lender.dto.ClientRegistrationResponse.class)))
-                .thenReturn(result);
-
-        scoringService.init();
-
-        verify(restClientService).sendRequest(
-                contains("createClient"),
-                eq(HttpMethod.POST),
-                any(HttpHeaders.class),
-                any(ClientRegistrationRequest.class),
-                eq(com.interview.lender.dto.ClientRegistrationResponse.class)
-        );
     }
 
 
 
     @Test
     void initiateScoring_shouldReturnToken_whenRequestIsSuccessful() {
-        stubClientRegistration();
-
         when(restClientService.sendRequest(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(String.class)))
                 .thenReturn(successResult);
 
@@ -114,8 +79,6 @@ class ScoringServiceTest {
 
     @Test
     void initiateScoring_shouldThrowException_whenRequestFails() {
-        stubClientRegistration();
-
         when(restClientService.sendRequest(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(String.class)))
                 .thenReturn(failureResult);
 
@@ -129,8 +92,6 @@ class ScoringServiceTest {
 
     @Test
     void getScore_shouldReturnScoringResponse_whenScoreIsReady() {
-        stubClientRegistration();
-
         HttpResultDto scoringResult = TestUtil.createSuccessHttpResult(scoringResponse);
         when(restClientService.sendRequest(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(ScoringResponse.class)))
                 .thenReturn(scoringResult);
@@ -147,8 +108,6 @@ class ScoringServiceTest {
 
     @Test
     void getScore_shouldReturnEmpty_whenScoreNotReady() {
-        stubClientRegistration();
-
         HttpResultDto notFoundResult = TestUtil.createFailureHttpResult(404, "Not Found");
         when(restClientService.sendRequest(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(ScoringResponse.class)))
                 .thenReturn(notFoundResult);
@@ -162,8 +121,6 @@ class ScoringServiceTest {
 
     @Test
     void getScore_shouldReturnEmpty_whenNoContent() {
-        stubClientRegistration();
-
         HttpResultDto noContentResult = TestUtil.createFailureHttpResult(HttpStatus.NO_CONTENT.value(), "No Content");
         when(restClientService.sendRequest(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(ScoringResponse.class)))
                 .thenReturn(noContentResult);
@@ -177,8 +134,6 @@ class ScoringServiceTest {
 
     @Test
     void getScore_shouldThrowException_whenServerError() {
-        stubClientRegistration();
-
         when(restClientService.sendRequest(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(ScoringResponse.class)))
                 .thenReturn(failureResult);
 
@@ -190,30 +145,162 @@ class ScoringServiceTest {
 
 
     @Test
-    void registerClient_shouldSetClientToken_whenRegistrationIsSuccessful() {
-        when(restClientService.sendRequest(anyString(), eq(HttpMethod.POST), any(HttpHeaders.class), any(ClientRegistrationRequest.class), eq(ClientRegistrationResponse.class)))
-                .thenReturn(registrationSuccessResult);
+    void getScore_shouldReRegisterAndRetryOnce_whenClientTokenIsRejected() {
+        HttpResultDto unauthorizedResult = TestUtil.createFailureHttpResult(HttpStatus.UNAUTHORIZED.value(), "Unauthorized");
+        HttpResultDto scoringResult = TestUtil.createSuccessHttpResult(scoringResponse);
+        when(scoringClientTokenManager.getToken()).thenReturn(TestUtil.TEST_CLIENT_TOKEN).thenReturn("client-token-456");
+        when(restClientService.sendRequest(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(ScoringResponse.class)))
+                .thenReturn(unauthorizedResult)
+                .thenReturn(scoringResult);
 
-        scoringService.registerClient();
+        var result = scoringService.getScore(TestUtil.TEST_SCORING_TOKEN);
 
-        verify(restClientService).sendRequest(
-                contains("createClient"),
-                eq(HttpMethod.POST),
-                any(HttpHeaders.class),
-                any(ClientRegistrationRequest.class),
-                eq(ClientRegistrationResponse.class)
-        );
+        assertTrue(result.isPresent());
+        verify(scoringClientTokenManager).invalidate(TestUtil.TEST_CLIENT_TOKEN);
+        verify(restClientService).sendRequest(anyString(), eq(HttpMethod.GET),
+                argThat(headers -> "client-token-456".equals(headers.getFirst("client-token"))), isNull(), eq(ScoringResponse.class));
     }
 
 
 
     @Test
-    void registerClient_shouldThrowException_whenRegistrationFails() {
-        when(restClientService.sendRequest(anyString(), eq(HttpMethod.POST), any(HttpHeaders.class), any(ClientRegistrationRequest.class), eq(ClientRegistrationResponse.class)))
-                .thenReturn(failureResult);
+    void initiateScoring_shouldNotRetryMoreThanOnce_whenClientTokenIsForbidden() {
+        HttpResultDto forbiddenResult = TestUtil.createFailureHttpResult(HttpStatus.FORBIDDEN.value(), "Forbidden");
+        when(restClientService.sendRequest(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(String.class)))
+                .thenReturn(forbiddenResult);
+
+        assertThrows(ExternalServiceException.class, () -> scoringService.initiateScoring(TestUtil.TEST_CUSTOMER_NUMBER));
+
+        verify(restClientService, times(2)).sendRequest(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(String.class));
+        verify(scoringClientTokenManager).invalidate(TestUtil.TEST_CLIENT_TOKEN);
+    }
+
+
+
+    @Test
+    void getScoreAsync_shouldReturnScoringResponse_whenScoreIsReady() {
+        HttpResultDto scoringResult = TestUtil.createSuccessHttpResult(scoringResponse);
+        when(restClientService.sendRequestAsync(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(ScoringResponse.class)))
+                .thenReturn(CompletableFuture.completedFuture(scoringResult));
+
+        var result = scoringService.getScoreAsync(TestUtil.TEST_SCORING_TOKEN).join();
+
+        assertTrue(result.isPresent());
+        assertEquals(TestUtil.TEST_CREDIT_SCORE, result.get().getScore());
+        verify(restClientService, never()).sendRequest(anyString(), any(), any(), any(), any());
+    }
+
+
+
+    @Test
+    void getScoreAsync_shouldReturnEmpty_whenScoreNotReady() {
+        HttpResultDto notFoundResult = TestUtil.createFailureHttpResult(404, "Not Found");
+        when(restClientService.sendRequestAsync(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(ScoringResponse.class)))
+                .thenReturn(CompletableFuture.completedFuture(notFoundResult));
+
+        var result = scoringService.getScoreAsync(TestUtil.TEST_SCORING_TOKEN).join();
+
+        assertFalse(result.isPresent());
+    }
+
+
+
+    @Test
+    void getScoreAsync_shouldReRegisterAndRetryOnce_whenClientTokenIsRejected() {
+        HttpResultDto unauthorizedResult = TestUtil.createFailureHttpResult(HttpStatus.UNAUTHORIZED.value(), "Unauthorized");
+        HttpResultDto scoringResult = TestUtil.createSuccessHttpResult(scoringResponse);
+        when(restClientService.sendRequestAsync(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(ScoringResponse.class)))
+                .thenReturn(CompletableFuture.completedFuture(unauthorizedResult))
+                .thenReturn(CompletableFuture.completedFuture(scoringResult));
+
+        var result = scoringService.getScoreAsync(TestUtil.TEST_SCORING_TOKEN).join();
+
+        assertTrue(result.isPresent());
+        verify(scoringClientTokenManager).invalidate(TestUtil.TEST_CLIENT_TOKEN);
+    }
+
+
+
+    @Test
+    void getScoreAsync_shouldCompleteExceptionally_whenServerError() {
+        when(restClientService.sendRequestAsync(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(ScoringResponse.class)))
+                .thenReturn(CompletableFuture.completedFuture(failureResult));
+
+        var exception = assertThrows(CompletionException.class, () -> scoringService.getScoreAsync(TestUtil.TEST_SCORING_TOKEN).join());
+
+        assertInstanceOf(ExternalServiceException.class, exception.getCause());
+    }
+
+
+
+    @Test
+    void getScore_shouldFailWithoutCallingEngine_whenConcurrencyLimitIsReached() {
+        when(scoringConcurrencyLimiter.tryAcquire(anyLong())).thenReturn(false);
+
+        assertThrows(ConcurrencyLimitExceededException.class, () -> scoringService.getScore(TestUtil.TEST_SCORING_TOKEN));
+
+        verifyNoInteractions(restClientService);
+        verify(scoringConcurrencyLimiter, never()).release(anyLong(), anyBoolean());
+    }
+
+
+
+    @Test
+    void getScore_shouldReleasePermitAsSuccess_whenScoreIsNotReady() {
+        when(restClientService.sendRequest(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(ScoringResponse.class)))
+                .thenReturn(attempted(TestUtil.createFailureHttpResult(404, "Not Found"), 40));
+
+        scoringService.getScore(TestUtil.TEST_SCORING_TOKEN);
+
+        verify(scoringConcurrencyLimiter).release(TimeUnit.MILLISECONDS.toNanos(40), false);
+    }
+
+
+
+    @Test
+    void getScore_shouldReleasePermitWithoutSample_whenGuardRejectedTheCall() {
+        when(restClientService.sendRequest(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(ScoringResponse.class)))
+                .thenReturn(TestUtil.createFailureHttpResult(503, "Circuit open for SCORING"));
+
+        assertThrows(ExternalServiceException.class, () -> scoringService.getScore(TestUtil.TEST_SCORING_TOKEN));
+
+        verify(scoringConcurrencyLimiter).releaseUnsampled();
+        verify(scoringConcurrencyLimiter, never()).release(anyLong(), anyBoolean());
+    }
+
+
+
+    @Test
+    void initiateScoring_shouldReleasePermitAsFailure_whenEngineErrors() {
+        when(restClientService.sendRequest(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(String.class)))
+                .thenReturn(attempted(failureResult, 40));
+
+        assertThrows(ExternalServiceException.class, () -> scoringService.initiateScoring(TestUtil.TEST_CUSTOMER_NUMBER));
+
+        verify(scoringConcurrencyLimiter).release(anyLong(), eq(true));
+    }
+
+
+
+    @Test
+    void getScoreAsync_shouldReleasePermit_whenResponseArrives() {
+        CompletableFuture<HttpResultDto> pending = new CompletableFuture<>();
+        when(restClientService.sendRequestAsync(anyString(), eq(HttpMethod.GET), any(HttpHeaders.class), isNull(), eq(ScoringResponse.class)))
+                .thenReturn(pending);
+
+        var result = scoringService.getScoreAsync(TestUtil.TEST_SCORING_TOKEN);
+        verify(scoringConcurrencyLimiter, never()).release(anyLong(), anyBoolean());
+
+        pending.complete(attempted(TestUtil.createSuccessHttpResult(scoringResponse), 40));
+        assertTrue(result.join().isPresent());
+        verify(scoringConcurrencyLimiter).release(anyLong(), eq(false));
+        verify(scoringConcurrencyLimiter).tryAcquire(0);
+    }
+
 
-        var exception = assertThrows(ExternalServiceException.class, () -> scoringService.registerClient());
 
-        assertEquals("Failed to register client: Internal Server Error", exception.getMessage());
+    private static HttpResultDto attempted(HttpResultDto result, long latencyMillis) {
+        result.setLatencyNanos(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package com.interview.lender.service;
+
+import com.interview.lender.config.AppConfig;
+import com.interview.lender.services.ScoringWorkerPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ScoringWorkerPoolTest {
+
+    @Mock
+    private AppConfig appConfig;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ScoringWorkerPool scoringWorkerPool;
+
+
+
+    @BeforeEach
+    void setUp() {
+        when(appConfig.getScoringWorkerPoolSize()).thenReturn(4);
+        meterRegistry = new SimpleMeterRegistry();
+        scoringWorkerPool = new ScoringWorkerPool(appConfig, meterRegistry);
+    }
+
+
+
+    @AfterEach
+    void tearDown() {
+        scoringWorkerPool.shutdown();
+    }
+
+
+
+    @Test
+    void processAll_shouldRunEveryItem_whenTasksSucceed() {
+        Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+        scoringWorkerPool.processAll(List.of(1, 2, 3, 4, 5, 6), processed::add);
+
+        assertEquals(Set.of(1, 2, 3, 4, 5, 6), processed);
+        assertEquals(6.0, meterRegistry.get("lender.scoring.worker.completed").counter().count());
+        assertEquals(0, scoringWorkerPool.getInFlight());
+    }
+
+
+
+    @Test
+    void processAll_shouldIsolateFailures_whenOneTaskThrows() {
+        AtomicInteger processed = new AtomicInteger();
+
+        assertDoesNotThrow(() -> scoringWorkerPool.processAll(List.of(1, 2, 3, 4, 5), item -> {
+            if (item == 3) throw new IllegalStateException("Scoring engine unavailable");
+            processed.incrementAndGet();
+        }));
+
+        assertEquals(4, processed.get());
+        assertEquals(4.0, meterRegistry.get("lender.scoring.worker.completed").counter().count());
+        assertEquals(1.0, meterRegistry.get("lender.scoring.worker.failed").counter().count());
+    }
+
+
+
+    @Test
+    void processAll_shouldRunTasksConcurrently_upToPoolSize() {
+        CountDownLatch allStarted = new CountDownLatch(4);
+        Set<Boolean> outcomes = ConcurrentHashMap.newKeySet();
+
+        scoringWorkerPool.processAll(List.of(1, 2, 3, 4), item -> {
+            allStarted.countDown();
+            try {
+                outcomes.add(allStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertEquals(Set.of(true), outcomes);
+    }
+
+
+
+    @Test
+    void processAll_shouldDoNothing_whenItemsAreEmpty() {
+        scoringWorkerPool.processAll(List.<Integer>of(), item -> fail("No task expected"));
+
+        assertEquals(0.0, meterRegistry.get("lender.scoring.worker.completed").counter().count());
+    }
+}
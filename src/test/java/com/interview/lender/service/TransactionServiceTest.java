@@ -1,30 +1,50 @@
 package com.interview.lender.service;
 
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.interview.lender.config.AppConfig;
+import com.interview.lender.dto.CachedTransactionHistory;
 import com.interview.lender.dto.HttpResultDto;
+import com.interview.lender.dto.ResponseDto;
 import com.interview.lender.dto.TransactionDto;
+import com.interview.lender.exception.DeadlineExceededException;
+import com.interview.lender.resilience.Deadline;
+import com.interview.lender.resilience.SingleFlight;
+import com.interview.lender.services.CbsSoapRequests;
+import com.interview.lender.services.ObjectReaderRegistry;
 import com.interview.lender.services.RestClientService;
 import com.interview.lender.services.TransactionService;
 import com.interview.lender.util.TestUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.http.HttpHeaders;
 
-import java.lang.reflect.Field;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -35,7 +55,8 @@ class TransactionServiceTest {
     @Mock
     private RestClientService restClientService;
 
-    @InjectMocks
+    private Cache<String, CachedTransactionHistory> transactionHistoryCache;
+    private SingleFlight<String, List<TransactionDto>> transactionHistoryFlights;
     private TransactionService transactionService;
 
     private HttpResultDto successResult;
@@ -45,9 +66,15 @@ class TransactionServiceTest {
 
     @BeforeEach
     void setUp() {
+        transactionHistoryCache = Caffeine.newBuilder().build();
+        transactionHistoryFlights = new SingleFlight<>();
         when(appConfig.getCbsTransactionUrl()).thenReturn(TestUtil.TEST_TRANSACTION_URL);
+        when(appConfig.getCbsTransactionCacheSoftTtlSeconds()).thenReturn(60L);
         when(appConfig.getCbsUsername()).thenReturn(TestUtil.TEST_CBS_USERNAME);
         when(appConfig.getCbsPassword()).thenReturn(TestUtil.TEST_CBS_PASSWORD);
+        when(appConfig.getTransactionBatchTimeoutMillis()).thenReturn(5000L);
+        transactionService = new TransactionService(appConfig, restClientService, new ObjectReaderRegistry(new ObjectMapper()),
+                transactionHistoryCache, transactionHistoryFlights, new CbsSoapRequests(appConfig));
 
         successResult = TestUtil.createSuccessHttpResult(TestUtil.MOCK_TRANSACTION_XML_RESPONSE);
         failureResult = TestUtil.createFailureHttpResult(500, "Internal Server Error");
@@ -55,24 +82,10 @@ class TransactionServiceTest {
 
 
 
-    @Test
-    void initXmlMapper_shouldRegisterJavaTimeModule() throws Exception {
-        transactionService.initXmlMapper();
-
-        Field xmlMapperField = TransactionService.class.getDeclaredField("xmlMapper");
-        xmlMapperField.setAccessible(true);
-        XmlMapper xmlMapper = (XmlMapper) xmlMapperField.get(transactionService);
-
-        assertTrue(xmlMapper.getRegisteredModuleIds().contains("jackson-datatype-jsr310"));
-    }
-
-
-
     @Test
     void getTransactionHistory_shouldReturnTransactions_whenValidSoapResponse() {
         HttpResultDto validSuccessResult = TestUtil.createSuccessHttpResult(TestUtil.MOCK_TRANSACTION_XML_RESPONSE);
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class)))
-                .thenReturn(validSuccessResult);
+        stubSoapResponse(validSuccessResult);
 
         var response = transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
 
@@ -86,8 +99,7 @@ class TransactionServiceTest {
 
     @Test
     void getTransactionHistory_shouldReturnMockData_whenSoapRequestFails() {
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class)))
-                .thenReturn(failureResult);
+        stubSoapResponse(failureResult);
 
         var response = transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
 
@@ -104,8 +116,7 @@ class TransactionServiceTest {
         String malformedXml = "<?xml version='1.0' encoding='UTF-8'?><soap:Envelope><unclosed-tag>";
         HttpResultDto malformedResult = TestUtil.createSuccessHttpResult(malformedXml);
 
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class)))
-                .thenReturn(malformedResult);
+        stubSoapResponse(malformedResult);
 
         var response = transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
 
@@ -121,8 +132,7 @@ class TransactionServiceTest {
     @Test
     void getTransactionHistory_shouldReturnMockData_whenSoapResponseHasNoTransactions() {
         HttpResultDto emptyResult = TestUtil.createSuccessHttpResult(TestUtil.MOCK_TRANSACTION_XML_RESPONSE_EMPTY);
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class)))
-                .thenReturn(emptyResult);
+        stubSoapResponse(emptyResult);
 
         var response = transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
 
@@ -137,12 +147,11 @@ class TransactionServiceTest {
 
     @Test
     void getTransactionHistory_shouldSetCorrectHeaders_whenMakingSoapRequest() {
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class)))
-                .thenReturn(successResult);
+        stubSoapResponse(successResult);
 
         transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
 
-        verify(restClientService).sendRequest(
+        verify(restClientService).sendRequestStreaming(
                 anyString(),
                 isNull(),
                 argThat(headers ->
@@ -150,8 +159,8 @@ class TransactionServiceTest {
                         Objects.requireNonNull(headers.getFirst("SOAPAction")).isEmpty() &&
                         Objects.equals(headers.getFirst("Accept"), "text/xml, application/xml")
                 ),
-                anyString(),
-                eq(String.class)
+                any(byte[].class),
+                any()
         );
     }
 
@@ -159,21 +168,20 @@ class TransactionServiceTest {
 
     @Test
     void buildSoapRequest_shouldContainCorrectCredentialsAndCustomerNumber() {
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class)))
-                .thenReturn(successResult);
+        stubSoapResponse(successResult);
 
         transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
 
-        verify(restClientService).sendRequest(
+        verify(restClientService).sendRequestStreaming(
                 anyString(),
                 isNull(),
                 any(HttpHeaders.class),
-                argThat(soapRequest ->
-                        soapRequest.toString().contains(TestUtil.TEST_CBS_USERNAME) &&
-                        soapRequest.toString().contains(TestUtil.TEST_CBS_PASSWORD) &&
-                        soapRequest.toString().contains(TestUtil.TEST_CUSTOMER_NUMBER)
+                argThat((byte[] soapRequest) ->
+                        soapText(soapRequest).contains(TestUtil.TEST_CBS_USERNAME) &&
+                        soapText(soapRequest).contains(TestUtil.TEST_CBS_PASSWORD) &&
+                        soapText(soapRequest).contains(TestUtil.TEST_CUSTOMER_NUMBER)
                 ),
-                eq(String.class)
+                any()
         );
     }
 
@@ -183,8 +191,7 @@ class TransactionServiceTest {
     void extractTransactions_shouldParseValidXmlResponse() {
         HttpResultDto validResult = TestUtil.createSuccessHttpResult(TestUtil.MOCK_TRANSACTION_XML_RESPONSE);
 
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class)))
-                .thenReturn(validResult);
+        stubSoapResponse(validResult);
 
         var response = transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
 
@@ -228,14 +235,12 @@ class TransactionServiceTest {
 
     @Test
     void getTransactionHistory_shouldAlwaysReturnSuccessResponse_regardlessOfExternalServiceStatus() {
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class)))
-                .thenReturn(successResult);
+        stubSoapResponse(successResult);
 
         var successResponse = transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
         TestUtil.assertSuccessResponse(successResponse);
 
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class)))
-                .thenReturn(failureResult);
+        stubSoapResponse(failureResult);
 
         var failureResponse = transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
         TestUtil.assertSuccessResponse(failureResponse);
@@ -245,16 +250,15 @@ class TransactionServiceTest {
 
     @Test
     void getTransactionHistory_shouldHandleDifferentCustomerNumbers() {
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class)))
-                .thenReturn(successResult);
+        stubSoapResponse(successResult);
 
         transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
         transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER_2);
         transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER_INVALID);
 
-        verify(restClientService).sendRequest(anyString(), isNull(), any(HttpHeaders.class), contains(TestUtil.TEST_CUSTOMER_NUMBER), eq(String.class));
-        verify(restClientService).sendRequest(anyString(), isNull(), any(HttpHeaders.class), contains(TestUtil.TEST_CUSTOMER_NUMBER_2), eq(String.class));
-        verify(restClientService).sendRequest(anyString(), isNull(), any(HttpHeaders.class), contains(TestUtil.TEST_CUSTOMER_NUMBER_INVALID), eq(String.class));
+        verify(restClientService).sendRequestStreaming(anyString(), isNull(), any(HttpHeaders.class), soapContaining(TestUtil.TEST_CUSTOMER_NUMBER), any());
+        verify(restClientService).sendRequestStreaming(anyString(), isNull(), any(HttpHeaders.class), soapContaining(TestUtil.TEST_CUSTOMER_NUMBER_2), any());
+        verify(restClientService).sendRequestStreaming(anyString(), isNull(), any(HttpHeaders.class), soapContaining(TestUtil.TEST_CUSTOMER_NUMBER_INVALID), any());
     }
 
 
@@ -263,8 +267,7 @@ class TransactionServiceTest {
     void extractTransactions_shouldLogWarning_whenResponseHasNoTransactions() {
         HttpResultDto emptyTransactionResult = TestUtil.createSuccessHttpResult(TestUtil.MOCK_TRANSACTION_XML_RESPONSE_EMPTY);
 
-        when(restClientService.sendRequest(anyString(), isNull(), any(HttpHeaders.class), anyString(), eq(String.class)))
-                .thenReturn(emptyTransactionResult);
+        stubSoapResponse(emptyTransactionResult);
 
         assertDoesNotThrow(() -> {
             var response = transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
@@ -275,15 +278,369 @@ class TransactionServiceTest {
 
 
     @Test
-    void xmlMapper_shouldBeConfiguredWithJavaTimeModule_afterPostConstruct() throws Exception {
-        transactionService.initXmlMapper();
+    void getTransactionHistoryAsync_shouldReturnTransactions_whenValidSoapResponse() {
+        HttpResultDto validSuccessResult = TestUtil.createSuccessHttpResult(TestUtil.MOCK_TRANSACTION_XML_RESPONSE);
+        stubSoapResponseAsync(validSuccessResult);
+
+        var response = transactionService.getTransactionHistoryAsync(TestUtil.TEST_CUSTOMER_NUMBER).join();
+
+        TestUtil.assertSuccessResponse(response);
+        @SuppressWarnings("unchecked")
+        List<TransactionDto> transactions = (List<TransactionDto>) response.getData();
+        assertFalse(transactions.isEmpty());
+        verify(restClientService, never()).sendRequestStreaming(anyString(), any(), any(), any(), any());
+    }
+
+
+
+    @Test
+    void getTransactionHistoryAsync_shouldReturnMockData_whenSoapRequestFails() {
+        stubSoapResponseAsync(failureResult);
+
+        var response = transactionService.getTransactionHistoryAsync(TestUtil.TEST_CUSTOMER_NUMBER).join();
+
+        TestUtil.assertSuccessResponse(response);
+        @SuppressWarnings("unchecked")
+        List<TransactionDto> transactions = (List<TransactionDto>) response.getData();
+        assertFalse(transactions.isEmpty());
+    }
+
+
+
+    @Test
+    void getTransactionHistory_shouldBindEveryTransaction_whenStreamingSoapResponse() {
+        stubSoapResponse(TestUtil.createSuccessHttpResult(TestUtil.MOCK_TRANSACTION_XML_RESPONSE_WITH_TRANSACTIONS));
+
+        var response = transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
+
+        @SuppressWarnings("unchecked")
+        List<TransactionDto> transactions = (List<TransactionDto>) response.getData();
+        assertEquals(2, transactions.size());
+        assertEquals("1000000001", transactions.get(0).getAccountNumber());
+        assertEquals(new BigDecimal("1500.75"), transactions.get(0).getMonthlyBalance());
+        assertEquals("1000000002", transactions.get(1).getAccountNumber());
+    }
+
+
+
+    @Test
+    void forEachTransaction_shouldEmitTransactionsInDocumentOrder() throws Exception {
+        List<String> accountNumbers = new ArrayList<>();
+
+        transactionService.forEachTransaction(toStream(TestUtil.MOCK_TRANSACTION_XML_RESPONSE_WITH_TRANSACTIONS),
+                transaction -> accountNumbers.add(transaction.getAccountNumber()));
+
+        assertEquals(List.of("1000000001", "1000000002"), accountNumbers);
+    }
+
+
+
+    @Test
+    void forEachTransaction_shouldRejectDoctype() {
+        String withDoctype = "<?xml version=\"1.0\"?><!DOCTYPE foo [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]><foo>&xxe;</foo>";
+
+        assertThrows(XMLStreamException.class, () -> transactionService.forEachTransaction(toStream(withDoctype), transaction -> {}));
+    }
+
+
+
+    @Test
+    void getTransactionHistory_shouldServeFromCache_whenEntryIsFresh() {
+        stubSoapResponse(TestUtil.createSuccessHttpResult(TestUtil.MOCK_TRANSACTION_XML_RESPONSE_WITH_TRANSACTIONS));
+
+        transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
+        var response = transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
+
+        @SuppressWarnings("unchecked")
+        List<TransactionDto> transactions = (List<TransactionDto>) response.getData();
+        assertEquals(2, transactions.size());
+        verify(restClientService, times(1)).sendRequestStreaming(anyString(), any(), any(), any(), any());
+        verify(restClientService, never()).sendRequestStreamingAsync(anyString(), any(), any(), any(), any());
+    }
+
+
+
+    @Test
+    void getTransactionHistory_shouldNotCacheMockFallback_whenSoapRequestFails() {
+        stubSoapResponse(failureResult);
+
+        transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
+        transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
+
+        assertNull(transactionHistoryCache.getIfPresent(TestUtil.TEST_CUSTOMER_NUMBER));
+        verify(restClientService, times(2)).sendRequestStreaming(anyString(), any(), any(), any(), any());
+    }
+
+
+
+    @Test
+    void getTransactionHistory_shouldServeStaleEntryAndRefreshInBackground_whenPastSoftTtl() {
+        TransactionDto stale = new TransactionDto();
+        stale.setAccountNumber("stale");
+        transactionHistoryCache.put(TestUtil.TEST_CUSTOMER_NUMBER,
+                new CachedTransactionHistory(List.of(stale), System.nanoTime() - TimeUnit.SECONDS.toNanos(120)));
+        stubSoapResponseAsync(TestUtil.createSuccessHttpResult(TestUtil.MOCK_TRANSACTION_XML_RESPONSE_WITH_TRANSACTIONS));
+
+        var response = transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
+
+        @SuppressWarnings("unchecked")
+        List<TransactionDto> served = (List<TransactionDto>) response.getData();
+        assertEquals("stale", served.getFirst().getAccountNumber());
+        assertEquals(2, transactionHistoryCache.getIfPresent(TestUtil.TEST_CUSTOMER_NUMBER).transactions().size());
+        verify(restClientService, never()).sendRequestStreaming(anyString(), any(), any(), any(), any());
+    }
+
+
+
+    @Test
+    void getTransactionHistory_shouldStartOneRefreshAtATime_whenEntryIsStale() {
+        transactionHistoryCache.put(TestUtil.TEST_CUSTOMER_NUMBER,
+                new CachedTransactionHistory(List.of(new TransactionDto()), System.nanoTime() - TimeUnit.SECONDS.toNanos(120)));
+        when(restClientService.sendRequestStreamingAsync(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), any()))
+                .thenReturn(new CompletableFuture<>());
+
+        transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
+        transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
+        transactionService.getTransactionHistoryAsync(TestUtil.TEST_CUSTOMER_NUMBER).join();
+
+        verify(restClientService, times(1)).sendRequestStreamingAsync(anyString(), any(), any(), any(), any());
+    }
+
+
+
+    @Test
+    void getTransactionHistory_shouldKeepStaleEntry_whenBackgroundRefreshFails() {
+        transactionHistoryCache.put(TestUtil.TEST_CUSTOMER_NUMBER,
+                new CachedTransactionHistory(List.of(new TransactionDto()), System.nanoTime() - TimeUnit.SECONDS.toNanos(120)));
+        stubSoapResponseAsync(failureResult);
+
+        transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
+
+        assertEquals(1, transactionHistoryCache.getIfPresent(TestUtil.TEST_CUSTOMER_NUMBER).transactions().size());
+    }
+
+
+
+    @Test
+    void getTransactionHistory_shouldRetryRefresh_whenPreviousRefreshThrewBeforeReturningFuture() {
+        transactionHistoryCache.put(TestUtil.TEST_CUSTOMER_NUMBER,
+                new CachedTransactionHistory(List.of(new TransactionDto()), System.nanoTime() - TimeUnit.SECONDS.toNanos(120)));
+        when(restClientService.sendRequestStreamingAsync(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), any()))
+                .thenThrow(new IllegalStateException("Executor rejected the call"))
+                .thenReturn(new CompletableFuture<>());
+
+        transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
+        transactionService.getTransactionHistory(TestUtil.TEST_CUSTOMER_NUMBER);
+
+        verify(restClientService, times(2)).sendRequestStreamingAsync(anyString(), any(), any(), any(), any());
+    }
+
+
+
+    @Test
+    void getTransactionHistoryAsync_shouldShareOneCbsCall_whenCallsOverlap() {
+        CompletableFuture<HttpResultDto> pending = new CompletableFuture<>();
+        when(restClientService.sendRequestStreamingAsync(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), any()))
+                .thenReturn(pending);
+
+        var first = transactionService.getTransactionHistoryAsync(TestUtil.TEST_CUSTOMER_NUMBER);
+        var second = transactionService.getTransactionHistoryAsync(TestUtil.TEST_CUSTOMER_NUMBER);
+        pending.complete(failureResult);
+
+        TestUtil.assertSuccessResponse(first.join());
+        assertEquals(first.join().getData(), second.join().getData());
+        assertEquals(1, transactionHistoryFlights.getExecuted());
+        assertEquals(1, transactionHistoryFlights.getCoalesced());
+        verify(restClientService, times(1)).sendRequestStreamingAsync(anyString(), any(), any(), any(), any());
+    }
+
+
+
+    @Test
+    void batchCustomerNumbers_shouldTrimAndDropDuplicates() {
+        when(appConfig.getTransactionBatchMaxSize()).thenReturn(10);
+
+        var customerNumbers = transactionService.batchCustomerNumbers(
+                List.of(TestUtil.TEST_CUSTOMER_NUMBER, " " + TestUtil.TEST_CUSTOMER_NUMBER_2, TestUtil.TEST_CUSTOMER_NUMBER));
+
+        assertEquals(List.of(TestUtil.TEST_CUSTOMER_NUMBER, TestUtil.TEST_CUSTOMER_NUMBER_2), customerNumbers);
+    }
+
+
+
+    @Test
+    void batchCustomerNumbers_shouldReject_whenOverMaxSize() {
+        when(appConfig.getTransactionBatchMaxSize()).thenReturn(1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.batchCustomerNumbers(List.of(TestUtil.TEST_CUSTOMER_NUMBER, TestUtil.TEST_CUSTOMER_NUMBER_2)));
+    }
+
+
+
+    @Test
+    void forEachTransactionHistory_shouldReportFailedCustomerAlongsideSuccessfulOnes() throws Exception {
+        when(appConfig.getTransactionBatchMaxParallelism()).thenReturn(4);
+        HttpResultDto transactions = TestUtil.createSuccessHttpResult(TestUtil.MOCK_TRANSACTION_XML_RESPONSE_WITH_TRANSACTIONS);
+        when(restClientService.sendRequestStreamingAsync(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), any()))
+                .thenAnswer(invocation -> soapText(invocation.getArgument(3)).contains(TestUtil.TEST_CUSTOMER_NUMBER_2)
+                        ? CompletableFuture.failedFuture(new DeadlineExceededException("Request deadline passed before calling TRANSACTIONS"))
+                        : CompletableFuture.completedFuture(readWith(invocation.getArgument(4), transactions)));
+        Map<String, ResponseDto> results = new LinkedHashMap<>();
+
+        transactionService.forEachTransactionHistory(List.of(TestUtil.TEST_CUSTOMER_NUMBER, TestUtil.TEST_CUSTOMER_NUMBER_2), results::put);
+
+        assertEquals(2, results.size());
+        TestUtil.assertSuccessResponse(results.get(TestUtil.TEST_CUSTOMER_NUMBER));
+        assertFalse(results.get(TestUtil.TEST_CUSTOMER_NUMBER_2).isSuccess());
+        assertEquals(504, results.get(TestUtil.TEST_CUSTOMER_NUMBER_2).getResultCode());
+    }
+
+
+
+    @Test
+    void forEachTransactionHistory_shouldKeepAtMostMaxParallelismCallsOutstanding() throws Exception {
+        when(appConfig.getTransactionBatchMaxParallelism()).thenReturn(2);
+        List<CompletableFuture<HttpResultDto>> calls = new CopyOnWriteArrayList<>();
+        when(restClientService.sendRequestStreamingAsync(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), any()))
+                .thenAnswer(invocation -> {
+                    CompletableFuture<HttpResultDto> call = new CompletableFuture<>();
+                    calls.add(call);
+                    return call;
+                });
+        Map<String, ResponseDto> results = new ConcurrentHashMap<>();
+
+        CompletableFuture<Void> batch = CompletableFuture.runAsync(() -> {
+            try {
+                transactionService.forEachTransactionHistory(List.of("100000001", "100000002", "100000003"), results::put);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        awaitCalls(calls, 2);
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertEquals(2, calls.size());
+
+        calls.getFirst().complete(failureResult);
+        awaitCalls(calls, 3);
+        calls.forEach(call -> call.complete(failureResult));
+        batch.get(1, TimeUnit.SECONDS);
+
+        assertEquals(Set.of("100000001", "100000002", "100000003"), results.keySet());
+    }
+
+
+
+    @Test
+    void forEachTransactionHistory_shouldReportCbsFailure_insteadOfMockData() throws Exception {
+        when(appConfig.getTransactionBatchMaxParallelism()).thenReturn(4);
+        stubSoapResponseAsync(failureResult);
+        Map<String, ResponseDto> results = new LinkedHashMap<>();
+
+        transactionService.forEachTransactionHistory(List.of(TestUtil.TEST_CUSTOMER_NUMBER), results::put);
+
+        ResponseDto result = results.get(TestUtil.TEST_CUSTOMER_NUMBER);
+        assertFalse(result.isSuccess());
+        assertEquals(502, result.getResultCode());
+        assertNull(transactionHistoryCache.getIfPresent(TestUtil.TEST_CUSTOMER_NUMBER));
+    }
+
+
+
+    @Test
+    void forEachTransactionHistory_shouldShareCbsCallWithSingleLookup_butReportItsFailure() throws Exception {
+        when(appConfig.getTransactionBatchMaxParallelism()).thenReturn(4);
+        CompletableFuture<HttpResultDto> pending = new CompletableFuture<>();
+        when(restClientService.sendRequestStreamingAsync(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), any()))
+                .thenReturn(pending);
+        Map<String, ResponseDto> results = new ConcurrentHashMap<>();
+
+        var single = transactionService.getTransactionHistoryAsync(TestUtil.TEST_CUSTOMER_NUMBER);
+        CompletableFuture<Void> batch = CompletableFuture.runAsync(() -> {
+            try {
+                transactionService.forEachTransactionHistory(List.of(TestUtil.TEST_CUSTOMER_NUMBER), results::put);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (transactionHistoryFlights.getCoalesced() < 1 && System.nanoTime() < waitUntil) TimeUnit.MILLISECONDS.sleep(1);
+        pending.complete(failureResult);
+        batch.get(1, TimeUnit.SECONDS);
+
+        // One CBS call; the single lookup falls back to mock data while the batch entry reports the failure
+        verify(restClientService, times(1)).sendRequestStreamingAsync(anyString(), any(), any(), any(), any());
+        assertEquals(1, transactionHistoryFlights.getCoalesced());
+        TestUtil.assertSuccessResponse(single.join());
+        assertEquals(502, results.get(TestUtil.TEST_CUSTOMER_NUMBER).getResultCode());
+    }
+
+
+
+    @Test
+    void forEachTransactionHistory_shouldReportOutstandingCustomersAsTimedOut_whenDeadlinePasses() throws Exception {
+        when(appConfig.getTransactionBatchMaxParallelism()).thenReturn(1);
+        when(restClientService.sendRequestStreamingAsync(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), any()))
+                .thenAnswer(invocation -> new CompletableFuture<>());
+        Map<String, ResponseDto> results = new LinkedHashMap<>();
+
+        Deadline.set(Deadline.afterMillis(50));
+        try {
+            transactionService.forEachTransactionHistory(List.of(TestUtil.TEST_CUSTOMER_NUMBER, TestUtil.TEST_CUSTOMER_NUMBER_2), results::put);
+        } finally {
+            Deadline.clear();
+        }
+
+        assertEquals(List.of(TestUtil.TEST_CUSTOMER_NUMBER, TestUtil.TEST_CUSTOMER_NUMBER_2), new ArrayList<>(results.keySet()));
+        results.values().forEach(result -> assertEquals(504, result.getResultCode()));
+        verify(restClientService, times(1)).sendRequestStreamingAsync(anyString(), any(), any(), any(), any());
+    }
+
+
+
+    private void stubSoapResponse(HttpResultDto result) {
+        when(restClientService.sendRequestStreaming(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), any()))
+                .thenAnswer(invocation -> readWith(invocation.getArgument(4), result));
+    }
+
+
+
+    private void stubSoapResponseAsync(HttpResultDto result) {
+        when(restClientService.sendRequestStreamingAsync(anyString(), isNull(), any(HttpHeaders.class), any(byte[].class), any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(readWith(invocation.getArgument(4), result)));
+    }
+
+
+
+    // Feeds the canned body through the service's own reader, the way RestClientService does with the socket stream
+    private HttpResultDto readWith(RestClientService.BodyReader<?> bodyReader, HttpResultDto result) throws IOException {
+        if (!result.isSuccess()) return result;
+
+        return TestUtil.createSuccessHttpResult(bodyReader.read(toStream(result.getMessage().toString())));
+    }
+
+
+
+    private static void awaitCalls(List<?> calls, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (calls.size() < count && System.nanoTime() < deadline) TimeUnit.MILLISECONDS.sleep(1);
+        assertEquals(count, calls.size());
+    }
+
+
+
+    private InputStream toStream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    private static byte[] soapContaining(String fragment) {
+        return argThat(body -> soapText(body).contains(fragment));
+    }
 
-        Field xmlMapperField = TransactionService.class.getDeclaredField("xmlMapper");
-        xmlMapperField.setAccessible(true);
-        XmlMapper xmlMapper = (XmlMapper) xmlMapperField.get(transactionService);
 
-        assertTrue(xmlMapper.getRegisteredModuleIds().contains("jackson-datatype-jsr310"));
 
-        assertNotNull(xmlMapper);
+    private static String soapText(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8);
     }
 }
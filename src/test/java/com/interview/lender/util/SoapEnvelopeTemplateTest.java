@@ -0,0 +1,62 @@
+package com.interview.lender.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.interview.lender.util.Constants.KYC_REQUEST_TEMPLATE;
+import static com.interview.lender.util.Constants.TRANSACTIONS_REQUEST_TEMPLATE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoapEnvelopeTemplateTest {
+
+    @Test
+    void render_shouldMatchStringFormat_forPlainValues() {
+        SoapEnvelopeTemplate template = SoapEnvelopeTemplate.compile(KYC_REQUEST_TEMPLATE);
+
+        byte[] rendered = template.render("admin", "pwd123", "234774784");
+
+        assertEquals(String.format(KYC_REQUEST_TEMPLATE, "admin", "pwd123", "234774784"), new String(rendered, StandardCharsets.UTF_8));
+    }
+
+
+
+    @Test
+    void bind_shouldFoldLeadingValuesIntoStaticSegments() {
+        SoapEnvelopeTemplate template = SoapEnvelopeTemplate.compile(TRANSACTIONS_REQUEST_TEMPLATE).bind("admin", "pwd123");
+
+        assertEquals(1, template.holes());
+        assertEquals(String.format(TRANSACTIONS_REQUEST_TEMPLATE, "admin", "pwd123", "318411216"),
+                new String(template.render("318411216"), StandardCharsets.UTF_8));
+    }
+
+
+
+    @Test
+    void render_shouldEscapeXmlSpecialCharacters() {
+        SoapEnvelopeTemplate template = SoapEnvelopeTemplate.compile("<a>%s</a>");
+
+        byte[] rendered = template.render("1</a><b>&'\"");
+
+        assertEquals("<a>1&lt;/a&gt;&lt;b&gt;&amp;&apos;&quot;</a>", new String(rendered, StandardCharsets.UTF_8));
+    }
+
+
+
+    @Test
+    void render_shouldEncodeNonAsciiAsUtf8() {
+        SoapEnvelopeTemplate template = SoapEnvelopeTemplate.compile("<a>%s</a>").bind("Zo\u00eb");
+
+        assertEquals("<a>Zo\u00eb</a>", new String(template.render(), StandardCharsets.UTF_8));
+    }
+
+
+
+    @Test
+    void render_shouldReject_whenValueCountDoesNotMatchHoles() {
+        SoapEnvelopeTemplate template = SoapEnvelopeTemplate.compile(KYC_REQUEST_TEMPLATE);
+
+        assertThrows(IllegalArgumentException.class, () -> template.render("only-one"));
+        assertThrows(IllegalArgumentException.class, () -> template.bind("a", "b", "c", "d"));
+    }
+}
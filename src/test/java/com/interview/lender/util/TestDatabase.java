@@ -0,0 +1,37 @@
+package com.interview.lender.util;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+
+public class TestDatabase {
+
+    private static EmbeddedPostgres postgres;
+
+
+
+    private TestDatabase() {
+    }
+
+
+
+    public static synchronized DataSource getDataSource() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to start embedded Postgres", e);
+            }
+            Flyway.configure()
+                    .dataSource(postgres.getPostgresDatabase())
+                    .locations("classpath:db/migration")
+                    .load()
+                    .migrate();
+        }
+        return postgres.getPostgresDatabase();
+    }
+}
@@ -3,7 +3,9 @@ package com.interview.lender.util;
 import com.interview.lender.dto.*;
 import com.interview.lender.entity.Customer;
 import com.interview.lender.entity.Loan;
+import com.interview.lender.entity.ScoringOutbox;
 import com.interview.lender.enums.LoanStatus;
+import com.interview.lender.enums.OutboxStatus;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -79,6 +81,26 @@ public class TestUtil {
             </SOAP-ENV:Envelope>
             """;
 
+    public static final String MOCK_TRANSACTION_XML_RESPONSE_WITH_TRANSACTIONS = """
+            <SOAP-ENV:Envelope xmlns:SOAP-ENV="http://schemas.xmlsoap.org/soap/envelope/">
+                <SOAP-ENV:Header/>
+                <SOAP-ENV:Body>
+                    <ns2:TransactionsResponse xmlns:ns2="http://credable.io/cbs/transaction">
+                        <ns2:transactions>
+                            <ns2:accountNumber>1000000001</ns2:accountNumber>
+                            <ns2:id>1</ns2:id>
+                            <ns2:monthlyBalance>1500.75</ns2:monthlyBalance>
+                        </ns2:transactions>
+                        <ns2:transactions>
+                            <ns2:accountNumber>1000000002</ns2:accountNumber>
+                            <ns2:id>2</ns2:id>
+                            <ns2:monthlyBalance>320.00</ns2:monthlyBalance>
+                        </ns2:transactions>
+                    </ns2:TransactionsResponse>
+                </SOAP-ENV:Body>
+            </SOAP-ENV:Envelope>
+            """;
+
     public static final String MOCK_TRANSACTION_XML_RESPONSE_EMPTY = """
             <SOAP-ENV:Envelope xmlns:SOAP-ENV="http://schemas.xmlsoap.org/soap/envelope/">
                 <SOAP-ENV:Header/>
@@ -223,6 +245,20 @@ public class TestUtil {
 
 
 
+    public static ScoringOutbox createScoringOutboxEntry() {
+        ScoringOutbox entry = ScoringOutbox.builder()
+                .loanId(1L)
+                .customerNumber(TEST_CUSTOMER_NUMBER)
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        entry.setId(10L);
+        return entry;
+    }
+
+
+
     public static ScoringResponse createScoringResponse() {
         ScoringResponse response = new ScoringResponse();
         response.setId(1L);